@@ -1,7 +1,8 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { Mail, Lock, User, ArrowRight, AlertCircle } from 'lucide-react';
 import { useAuth } from '../../context/AuthContext';
+import { authApi } from '../../services/api';
 import './Auth.css';
 
 export const Login = () => {
@@ -98,6 +99,37 @@ export const Login = () => {
     );
 };
 
+// Debounced as-you-type check; null until there is an answer for the current value
+const useAvailability = (field: 'username' | 'email', value: string) => {
+    const [available, setAvailable] = useState<boolean | null>(null);
+
+    useEffect(() => {
+        setAvailable(null);
+        const trimmed = value.trim();
+        if (!trimmed || (field === 'email' && !trimmed.includes('@'))) {
+            return;
+        }
+        let cancelled = false;
+        const timer = setTimeout(() => {
+            authApi.checkAvailability({ [field]: trimmed })
+                .then((result) => {
+                    if (!cancelled) {
+                        setAvailable(result[field] ?? null);
+                    }
+                })
+                .catch(() => {
+                    // Signup still reports duplicates; the hint is best effort
+                });
+        }, 300);
+        return () => {
+            cancelled = true;
+            clearTimeout(timer);
+        };
+    }, [field, value]);
+
+    return available;
+};
+
 export const Signup = () => {
     const [username, setUsername] = useState('');
     const [email, setEmail] = useState('');
@@ -108,6 +140,8 @@ export const Signup = () => {
 
     const { signup } = useAuth();
     const navigate = useNavigate();
+    const usernameAvailable = useAvailability('username', username);
+    const emailAvailable = useAvailability('email', email);
 
     const handleSubmit = async (e: React.FormEvent) => {
         e.preventDefault();
@@ -167,6 +201,9 @@ export const Signup = () => {
                                 required
                             />
                         </div>
+                        {usernameAvailable === false && (
+                            <span className="field-hint taken">This username is taken</span>
+                        )}
                     </div>
 
                     <div className="form-group">
@@ -182,6 +219,9 @@ export const Signup = () => {
                                 required
                             />
                         </div>
+                        {emailAvailable === false && (
+                            <span className="field-hint taken">An account already uses this email</span>
+                        )}
                     </div>
 
                     <div className="form-group">
@@ -15,6 +15,7 @@ interface CharState {
 
 export const Typing = () => {
     const [text, setText] = useState<string>('');
+    const [session, setSession] = useState<string>('');
     const [charStates, setCharStates] = useState<CharState[]>([]);
     const [typedText, setTypedText] = useState<string>('');
     const [currentIndex, setCurrentIndex] = useState<number>(0);
@@ -40,6 +41,7 @@ export const Typing = () => {
             const response = await typingApi.getText(wordCount);
             const newText = response.text;
             setText(newText);
+            setSession(response.session);
             setCharStates(
                 newText.split('').map((char, index) => ({
                     char,
@@ -93,7 +95,7 @@ export const Typing = () => {
 
         try {
             const response = await typingApi.submitResult({
-                originalText: text,
+                session,
                 typedText: completedText,
                 duration: duration,
             });
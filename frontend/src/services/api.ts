@@ -1,6 +1,7 @@
 import axios from 'axios';
 import type {
     AuthResponse,
+    Availability,
     LoginRequest,
     SignupRequest,
     TypingText,
@@ -59,6 +60,11 @@ export const authApi = {
         const response = await api.post<AuthResponse>('/auth/signup', data);
         return response.data;
     },
+
+    checkAvailability: async (params: { username?: string; email?: string }): Promise<Availability> => {
+        const response = await api.get<Availability>('/auth/available', { params });
+        return response.data;
+    },
 };
 
 // ============================================
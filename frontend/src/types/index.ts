@@ -29,15 +29,29 @@ export interface SignupRequest {
     password: string;
 }
 
+// Only the fields that were asked about are present
+export interface Availability {
+    username?: boolean;
+    email?: boolean;
+}
+
 // Typing Types
 export interface TypingText {
     text: string;
+    // Pass back to /typing/text to get the same text again
+    seed: string;
+    // Submit with this instead of the text itself
+    session: string;
 }
 
 export interface TypingSubmitRequest {
-    originalText: string;
+    session: string;
     typedText: string;
     duration: number;
+    scoringMode?: 'position' | 'alignment';
+    durationMillis?: number;
+    // Base64 varint stream: per key, ms since previous key then codePoint << 1 | correct
+    keystrokes?: string;
 }
 
 export interface TypingResult {
@@ -45,6 +59,30 @@ export interface TypingResult {
     accuracy: number;
     errors: number;
     correctedChars: number;
+    // Only present with alignment scoring
+    substitutions?: number;
+    insertions?: number;
+    deletions?: number;
+    // Only present when keystrokes were sent
+    keystrokes?: KeystrokeStats;
+}
+
+export interface BigramLatency {
+    bigram: string;
+    count: number;
+    averageMillis: number;
+}
+
+export interface KeystrokeStats {
+    keystrokes: number;
+    incorrectKeystrokes: number;
+    medianLatencyMillis: number;
+    p95LatencyMillis: number;
+    hesitations: number;
+    longestPauseMillis: number;
+    longestPauseAt: number;
+    burstWpm: number;
+    slowestBigrams: BigramLatency[];
 }
 
 // Dashboard Types
@@ -74,6 +112,7 @@ export interface UserStats {
 export interface TypingHistory {
     id: number;
     duration: number;
+    durationMillis: number | null;
     totalChars: number;
     correctChars: number;
     errors: number;
@@ -14,4 +14,4 @@ FLUSH PRIVILEGES;
 -- Example:
 -- INSERT INTO users (username, email, password) VALUES ('testuser', 'test@example.com', 'hashedpassword');
 
--- Note: Table creation is handled by Hibernate (spring.jpa.hibernate.ddl-auto=update)
+-- Note: Tables and indexes are created by Flyway migrations (src/main/resources/db/migration)
@@ -0,0 +1,77 @@
+package com.typingfast.app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost RateLimitFilter adds to a request: the bucket update alone, for one
+ * hot key and for a million keys cycling through a 64k table (so most calls
+ * evict), and the whole filter on a limited and an unlimited route.
+ * Limits are high enough that every call is allowed and takes the CAS path.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="RateLimitBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimitBenchmark {
+
+    private static final int KEYS = 1 << 20;
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    RateLimiter limiter;
+    RateLimitFilter filter;
+    MockHttpServletRequest limited;
+    MockHttpServletRequest unlimited;
+    MockHttpServletResponse response;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        long next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new RateLimiter(1_000_000_000, TimeUnit.SECONDS.toNanos(1), 65_536);
+        filter = new RateLimitFilter(new SimpleMeterRegistry(), true,
+                List.of("/api/typing/text=1000000000/1s"), 65_536);
+        limited = new MockHttpServletRequest("GET", "/api/typing/text");
+        unlimited = new MockHttpServletRequest("GET", "/api/leaderboard");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return limiter.tryAcquire(42);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long hotKeyContended() {
+        return limiter.tryAcquire(42);
+    }
+
+    @Benchmark
+    public long manyKeys(Cursor cursor) {
+        return limiter.tryAcquire(cursor.next++ & (KEYS - 1));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterLimitedRoute() throws Exception {
+        filter.doFilter(limited, response, NO_OP);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterUnlimitedRoute() throws Exception {
+        filter.doFilter(unlimited, response, NO_OP);
+        return response;
+    }
+}
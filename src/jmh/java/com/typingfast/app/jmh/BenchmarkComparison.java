@@ -0,0 +1,105 @@
+package com.typingfast.app.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compare a JMH JSON result file against a baseline and fail on regressions.
+ * A benchmark regresses when its score moves the wrong way (down for throughput,
+ * up for time modes) or its allocation per operation grows by more than the tolerance.
+ * mvn -Pjmh exec:exec@compare -Djmh.tolerance=10
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // Allocation differences below this many bytes per op are measurement noise
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <result.json> [tolerance %]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100.0 : 0.10;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> result = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n",
+                "Benchmark", "Baseline", "Result", "Change", "B/op base", "B/op now");
+        for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f%n", entry.getKey(), "new", score(after));
+                continue;
+            }
+            double change = (score(after) - score(before)) / score(before);
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            boolean slower = higherIsBetter ? change < -tolerance : change > tolerance;
+
+            double allocBefore = allocation(before);
+            double allocAfter = allocation(after);
+            boolean allocates = allocBefore >= 0 && allocAfter >= 0
+                    && allocAfter - allocBefore > Math.max(allocBefore * tolerance, ALLOCATION_SLACK_BYTES);
+
+            if (slower || allocates) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12.1f %12.1f%s%n",
+                    entry.getKey(), score(before), score(after), change * 100,
+                    allocBefore, allocAfter,
+                    slower && allocates ? "  SLOWER, ALLOCATES MORE"
+                            : slower ? "  SLOWER" : allocates ? "  ALLOCATES MORE" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!result.containsKey(missing)) {
+                System.out.printf("%-70s %14s%n", missing, "not run");
+            }
+        }
+
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.0f%%%n", tolerance * 100);
+    }
+
+    /**
+     * Index results by benchmark name, mode and parameters
+     */
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(node.path("benchmark").asText()
+                    .replace("com.typingfast.app.", ""));
+            key.append(" (").append(node.path("mode").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = node.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(", ").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.append(')').toString(), node);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode node) {
+        return node.path("primaryMetric").path("score").asDouble();
+    }
+
+    // -1 when the run did not use the GC profiler
+    private static double allocation(JsonNode node) {
+        JsonNode metric = node.path("secondaryMetrics").path(ALLOCATION);
+        return metric.isMissingNode() ? -1 : metric.path("score").asDouble();
+    }
+}
@@ -0,0 +1,76 @@
+package com.typingfast.app.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alignment of a 2,000 character submission with about 5% typos.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="AlignmentBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AlignmentBenchmark {
+
+    @Param({"300", "2000"})
+    int length;
+
+    String original;
+    String typed;
+    String originalCyrillic;
+    String typedCyrillic;
+    TypingAnalysisService analysisService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(3);
+        original = text(random, "abcdefghijklmnopqrstuvwxyz     ");
+        typed = typos(random, original, 'q');
+        originalCyrillic = text(random, "абвгдежзийклмнопрстуфхцчшщэюя     ");
+        typedCyrillic = typos(random, originalCyrillic, 'ж');
+        analysisService = new TypingAnalysisService();
+    }
+
+    @Benchmark
+    public int position() {
+        return analysisService.calculateErrors(original, typed);
+    }
+
+    @Benchmark
+    public Alignment alignmentAscii() {
+        return analysisService.align(original, typed);
+    }
+
+    @Benchmark
+    public Alignment alignmentCodePoints() {
+        return analysisService.align(originalCyrillic, typedCyrillic);
+    }
+
+    private String text(SplittableRandom random, String alphabet) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    // Roughly equal parts skipped, wrong and doubled characters
+    private static String typos(SplittableRandom random, String text, char wrong) {
+        StringBuilder typed = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            int roll = random.nextInt(60);
+            if (roll == 0) {
+                continue;
+            }
+            typed.append(roll == 1 ? wrong : text.charAt(i));
+            if (roll == 2) {
+                typed.append(text.charAt(i));
+            }
+        }
+        return typed.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.TypingHistoryResponse;
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping for one page of typing history.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="HistoryMappingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoryMappingBenchmark {
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    DashboardService dashboardService;
+    List<TypingResult> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Mapping touches none of the repositories
+        dashboardService = new DashboardService(null, null, null);
+        User user = User.builder().Id(1L).username("benchmark").build();
+        SplittableRandom random = new SplittableRandom(9);
+        LocalDateTime now = LocalDateTime.now();
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            int total = 150 + random.nextInt(300);
+            int errors = random.nextInt(20);
+            page.add(TypingResult.builder()
+                    .id((long) i)
+                    .user(user)
+                    .duration(60)
+                    .durationMillis(60_000 + random.nextInt(1000))
+                    .totalChars(total)
+                    .correctChars(total - errors)
+                    .errors(errors)
+                    .wpm(30 + random.nextDouble() * 90)
+                    .accuracy(90 + random.nextDouble() * 10)
+                    .createdAt(now.minusMinutes(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<TypingHistoryResponse> mapPage() {
+        List<TypingHistoryResponse> responses = new ArrayList<>(page.size());
+        for (TypingResult result : page) {
+            responses.add(dashboardService.mapToHistoryResponse(result));
+        }
+        return responses;
+    }
+}
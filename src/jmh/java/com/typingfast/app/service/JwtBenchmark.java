@@ -0,0 +1,63 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.entity.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and the checks JwtAuthenticationFilter runs on every request,
+ * with the verified-claims cache warm and with it disabled.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="JwtBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hmac-sha-256-signing";
+
+    JwtService cached;
+    JwtService uncached;
+    User user;
+    String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cached = new JwtService(SECRET, 86_400_000L, 10_000, new SimpleMeterRegistry());
+        uncached = new JwtService(SECRET, 86_400_000L, 0, new SimpleMeterRegistry());
+        user = User.builder().Id(42L).username("benchmark").build();
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    // What JwtAuthenticationFilter runs per request: one verification, every claim read from it
+    @Benchmark
+    public Claims verify() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return cached.validateToken(token);
+    }
+
+    // Full signature verification on every call
+    @Benchmark
+    public Boolean validateTokenUncached() {
+        return uncached.validateToken(token);
+    }
+}
@@ -0,0 +1,65 @@
+package com.typingfast.app.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard reads and writes at one million ranked users.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="LeaderboardBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LeaderboardBenchmark {
+
+    @Param("1000000")
+    int users;
+
+    Leaderboard leaderboard;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leaderboard = new Leaderboard();
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= users; id++) {
+            leaderboard.offer(id, "user" + id, randomWpm(random.nextDouble(), random.nextDouble()));
+        }
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> top10() {
+        return leaderboard.top(10);
+    }
+
+    @Benchmark
+    public int rankOfUser() {
+        long userId = ThreadLocalRandom.current().nextLong(1, users + 1);
+        return leaderboard.rankOf(leaderboard.entry(userId).bestWpm());
+    }
+
+    // Mostly rejected offers, as most submits don't beat a personal best
+    @Benchmark
+    public boolean offer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextLong(1, users + 1);
+        return leaderboard.offer(userId, "user" + userId, randomWpm(random.nextDouble(), random.nextDouble()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Leaderboard.Entry> top10Contended() {
+        return leaderboard.top(10);
+    }
+
+    // Roughly normal around 60 WPM
+    private static double randomWpm(double u1, double u2) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - u1)) * Math.cos(2 * Math.PI * u2);
+        return Math.max(0.0, 60.0 + 20.0 * gaussian);
+    }
+}
@@ -0,0 +1,66 @@
+package com.typingfast.app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Text generation latency and allocation; run with the GC profiler for B/op.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="TextGenerationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TextGenerationBenchmark {
+
+    @Param({"15", "30", "50", "100"})
+    int words;
+
+    TypingTextService generator;
+    TypingTextService pooled;
+    List<String> wordList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CorpusRegistry corpora = new CorpusRegistry("");
+        generator = new TypingTextService(corpora, new SimpleMeterRegistry(), 500, false, new int[0], 0);
+        pooled = new TypingTextService(corpora, new SimpleMeterRegistry(), 500, true, new int[]{words}, 1024);
+        wordList = List.of(generator.generatedText(1L, 500, null).text().split(" "));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pooled.shutdown();
+    }
+
+    // The previous implementation: a new Random per call and a boxed stream join
+    @Benchmark
+    public String legacy() {
+        Random random = new Random();
+        return random.ints(words, 0, wordList.size())
+                .mapToObj(wordList::get)
+                .collect(Collectors.joining(" "));
+    }
+
+    @Benchmark
+    public GeneratedText generated() {
+        return generator.generatedText(words, null);
+    }
+
+    @Benchmark
+    public GeneratedText seeded() {
+        return generator.generatedText(42L, words, null);
+    }
+
+    // Single-threaded polling outruns the refill thread, so this mixes hits and misses
+    @Benchmark
+    public GeneratedText pooled() {
+        return pooled.generatedText(words, null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.typingfast.app.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-submit scoring arithmetic across text lengths, with about 5% typos.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="TypingAnalysisBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TypingAnalysisBenchmark {
+
+    @Param({"50", "500", "5000"})
+    int length;
+
+    String original;
+    String typed;
+    int correctChars;
+    int durationSeconds;
+    TypingAnalysisService analysisService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(5);
+        StringBuilder source = new StringBuilder(length);
+        StringBuilder copy = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(26));
+            source.append(c);
+            copy.append(random.nextInt(20) == 0 ? (char) ('a' + random.nextInt(26)) : c);
+        }
+        original = source.toString();
+        typed = copy.toString();
+        analysisService = new TypingAnalysisService();
+        correctChars = length - analysisService.calculateErrors(original, typed);
+        durationSeconds = Math.max(15, length / 5);
+    }
+
+    @Benchmark
+    public int calculateErrors() {
+        return analysisService.calculateErrors(original, typed);
+    }
+
+    @Benchmark
+    public double calculateAccuracy() {
+        return analysisService.calculateAccuracy(correctChars, length);
+    }
+
+    @Benchmark
+    public double calculateWpm() {
+        return analysisService.calculateWpm(correctChars, durationSeconds);
+    }
+}
@@ -0,0 +1,550 @@
+package com.typingfast.app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typingfast.app.TypingfastApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the whole app in this JVM against an embedded H2 database (MySQL mode),
+ * optionally pre-seeded with users and typing_results, and drives a closed-loop
+ * mix of virtual users through the real HTTP stack.
+ *
+ * Each virtual user signs up or logs in, then repeats: fetch a text, submit it,
+ * read the dashboard stats. Once per session it also reads history, profile,
+ * percentile, weekly progress and the leaderboard, then views the dashboard
+ * again a few times the way a browser would, revalidating with If-None-Match. Reports throughput, error rate and
+ * p50/p99/p99.9 latency per endpoint, and the Hikari connection wait.
+ *
+ * Options (key=value): concurrency, duration and warmup (seconds), seedUsers,
+ * seedResults, tests (per session), signup (% of sessions that sign up), views
+ * (repeat dashboard views per session), words,
+ * pool (Hikari size), jdbc (another local database). Keys containing a dot are
+ * passed to the app as Spring properties, e.g. typing.write-behind.enabled=true.
+ *
+ * The client shares the machine with the server, so compare runs made on the
+ * same box rather than reading the numbers as absolute capacity.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=HttpLoadTest -Dloadtest.args="concurrency=32 seedResults=1000000"
+ */
+public class HttpLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PASSWORD = "loadtest-password";
+    private static final int[] WORD_COUNTS = {15, 30, 50, 100};
+    // Latencies in microseconds, up to one minute at 3 significant digits
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, String> options;
+    private final int concurrency;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int seedUsers;
+    private final int seedResults;
+    private final int testsPerSession;
+    private final int signupPercent;
+    private final int viewsPerSession;
+    private final int words;
+    private final String jdbcUrl;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicInteger signups = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final Set<String> errorMessages = ConcurrentHashMap.newKeySet();
+
+    private String baseUrl;
+
+    HttpLoadTest(Map<String, String> options) {
+        this.options = options;
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        this.seedUsers = Integer.parseInt(options.getOrDefault("seedUsers", "1000"));
+        this.seedResults = Integer.parseInt(options.getOrDefault("seedResults", "100000"));
+        this.testsPerSession = Integer.parseInt(options.getOrDefault("tests", "5"));
+        this.signupPercent = Integer.parseInt(options.getOrDefault("signup", "10"));
+        this.viewsPerSession = Integer.parseInt(options.getOrDefault("views", "2"));
+        // 0 picks one of the sizes offered in the UI for every test
+        this.words = Integer.parseInt(options.getOrDefault("words", "0"));
+        this.jdbcUrl = options.getOrDefault("jdbc",
+                "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        for (String name : List.of("signup", "login", "text", "submit", "stats",
+                "history", "profile", "progress", "percentile", "leaderboard",
+                "stats-repeat", "history-repeat", "profile-repeat", "progress-repeat")) {
+            endpoints.put(name, new Endpoint());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Set<String> known = Set.of("concurrency", "duration", "warmup", "seedUsers", "seedResults",
+                "tests", "signup", "views", "words", "pool", "jdbc", "user", "password");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, equals);
+            if (!known.contains(key) && key.indexOf('.') < 0) {
+                throw new IllegalArgumentException("Unknown option " + key);
+            }
+            options.put(key, arg.substring(equals + 1));
+        }
+        new HttpLoadTest(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        String user = options.getOrDefault("user", "sa");
+        String password = options.getOrDefault("password", "");
+
+        // Schema and seed data go in before the app starts, so the leaderboard,
+        // percentile histograms and user_stats are built from them at startup
+        Flyway.configure()
+                .dataSource(jdbcUrl, user, password)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        seed(user, password);
+
+        ConfigurableApplicationContext context = boot(user, password);
+        try {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            drive(registry);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void seed(String user, String password) throws Exception {
+        if (seedUsers == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        SplittableRandom random = new SplittableRandom(17);
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (id, username, email, password, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= seedUsers; i++) {
+                    insert.setLong(1, i);
+                    insert.setString(2, seedUsername(i));
+                    insert.setString(3, seedUsername(i) + "@loadtest.local");
+                    insert.setString(4, hash);
+                    insert.setTimestamp(5, Timestamp.valueOf(now.minusDays(400)));
+                    insert.addBatch();
+                    if (i % 5000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            if (jdbcUrl.startsWith("jdbc:h2:")) {
+                // Let users created through the API continue after the seeded ids
+                connection.createStatement().execute(
+                        "ALTER TABLE users ALTER COLUMN id RESTART WITH " + (seedUsers + 1));
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO typing_results (user_id, wpm, accuracy, duration, duration_millis,"
+                            + " total_chars, correct_chars, errors, created_at)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= seedResults; i++) {
+                    long userId = 1 + random.nextInt(seedUsers);
+                    // Each user types at a steady speed of their own, give or take 15%
+                    double skill = 30 + (userId * 7919 % 90);
+                    double wpm = Math.max(5, skill * (0.85 + random.nextDouble() * 0.3));
+                    int duration = WORD_COUNTS[random.nextInt(WORD_COUNTS.length)] * 60 / (int) Math.max(wpm, 15);
+                    int totalChars = (int) (wpm * 5 * duration / 60);
+                    int errors = random.nextInt(Math.max(1, totalChars / 20));
+                    insert.setLong(1, userId);
+                    insert.setDouble(2, Math.round(wpm * 100.0) / 100.0);
+                    insert.setDouble(3, totalChars == 0 ? 0 : 100.0 * (totalChars - errors) / totalChars);
+                    insert.setInt(4, Math.max(duration, 1));
+                    insert.setInt(5, Math.max(duration, 1) * 1000 + random.nextInt(1000));
+                    insert.setInt(6, totalChars);
+                    insert.setInt(7, totalChars - errors);
+                    insert.setInt(8, errors);
+                    insert.setTimestamp(9, Timestamp.valueOf(now.minusSeconds(random.nextLong(365L * 86400))));
+                    insert.addBatch();
+                    if (i % 5000 == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            // The V6 backfill ran before these rows existed
+            connection.createStatement().execute("INSERT INTO daily_user_rollup"
+                    + " (user_id, rollup_day, tests, sum_wpm, sum_sq_wpm, max_wpm, sum_accuracy, sum_sq_accuracy, max_accuracy)"
+                    + " SELECT user_id, CAST(created_at AS DATE), COUNT(*), SUM(wpm), SUM(wpm * wpm), MAX(wpm),"
+                    + " SUM(accuracy), SUM(accuracy * accuracy), MAX(accuracy)"
+                    + " FROM typing_results GROUP BY user_id, CAST(created_at AS DATE)");
+            connection.commit();
+        }
+        System.out.printf("Seeded %d users and %d results in %.1f s%n",
+                seedUsers, seedResults, (System.nanoTime() - start) / 1e9);
+    }
+
+    private ConfigurableApplicationContext boot(String user, String password) {
+        // Devtools would restart the app in another class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        // Metrics are read from the registry directly; no second port needed
+        properties.put("management.server.port", "-1");
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", user);
+        properties.put("spring.datasource.password", password);
+        properties.put("spring.datasource.driver-class-name", "");
+        properties.put("spring.datasource.hikari.maximum-pool-size", options.getOrDefault("pool", "10"));
+        if (jdbcUrl.startsWith("jdbc:h2:")) {
+            properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        }
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("stats.rebuild-on-startup", Boolean.toString(seedResults > 0));
+        // Virtual users have no think time; pass rate-limit.enabled=true to include the limiter
+        properties.put("rate-limit.enabled", "false");
+        // ...and submit straight after fetching, long before the durations they report
+        properties.put("typing.session.check-elapsed", "false");
+        properties.put("management.metrics.distribution.percentiles.hikaricp.connections.acquire",
+                "0.5,0.99,0.999");
+        // Keep the pool wait percentiles for the whole run instead of a two minute window
+        properties.put("management.metrics.distribution.expiry.hikaricp.connections.acquire",
+                (warmupSeconds + durationSeconds + 60) + "s");
+        properties.put("management.metrics.distribution.buffer-length.hikaricp.connections.acquire", "1");
+        options.forEach((key, value) -> {
+            if (key.indexOf('.') >= 0) {
+                properties.put(key, value);
+            }
+        });
+
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = SpringApplication.run(TypingfastApplication.class,
+                args.toArray(String[]::new));
+        System.out.printf("App started in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        return context;
+    }
+
+    private void drive(MeterRegistry registry) throws Exception {
+        Timer poolWait = registry.find("hikaricp.connections.acquire").timer();
+        Gauge pending = registry.find("hikaricp.connections.pending").gauge();
+        AtomicLong maxPending = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        if (pending != null) {
+            sampler.scheduleAtFixedRate(
+                    () -> maxPending.accumulateAndGet((long) pending.value(), Math::max),
+                    100, 100, TimeUnit.MILLISECONDS);
+        }
+
+        System.out.printf("Running %d virtual users: %d s warm-up, %d s measured%n",
+                concurrency, warmupSeconds, durationSeconds);
+        List<Thread> users = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread thread = new Thread(this::virtualUser, "vu-" + i);
+            thread.start();
+            users.add(thread);
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        // Discard everything recorded during warm-up
+        endpoints.values().forEach(Endpoint::reset);
+        long waitCount = poolWait == null ? 0 : poolWait.count();
+        double waitTotal = poolWait == null ? 0 : poolWait.totalTime(TimeUnit.MICROSECONDS);
+        maxPending.set(0);
+        long measureStart = System.nanoTime();
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        endpoints.forEach((name, endpoint) -> latencies.put(name, endpoint.recorder.getIntervalHistogram()));
+        Map<String, Long> errors = new LinkedHashMap<>();
+        endpoints.forEach((name, endpoint) -> errors.put(name, endpoint.errors.get()));
+        long acquires = poolWait == null ? 0 : poolWait.count() - waitCount;
+        double acquireMicros = poolWait == null ? 0 : poolWait.totalTime(TimeUnit.MICROSECONDS) - waitTotal;
+        HistogramSnapshot waitSnapshot = poolWait == null ? null : poolWait.takeSnapshot();
+
+        running.set(false);
+        for (Thread thread : users) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        sampler.shutdownNow();
+
+        report(seconds, latencies, errors);
+        System.out.println();
+        if (poolWait == null) {
+            System.out.println("Hikari metrics not available");
+        } else {
+            System.out.printf("Hikari pool wait: %d acquires, mean %.3f ms, max pending %d%n",
+                    acquires, acquires == 0 ? 0 : acquireMicros / acquires / 1000, maxPending.get());
+            StringBuilder percentiles = new StringBuilder("  including warm-up:");
+            for (ValueAtPercentile value : waitSnapshot.percentileValues()) {
+                percentiles.append(String.format(" p%s %.3f ms", trim(value.percentile() * 100),
+                        value.value(TimeUnit.MILLISECONDS)));
+            }
+            System.out.printf("%s, max %.3f ms%n", percentiles, waitSnapshot.max(TimeUnit.MILLISECONDS));
+            Counter timeouts = registry.find("hikaricp.connections.timeout").counter();
+            if (timeouts != null) {
+                System.out.printf("  connection timeouts: %.0f%n", timeouts.count());
+            }
+        }
+        if (!errorMessages.isEmpty()) {
+            System.out.println("First errors:");
+            errorMessages.stream().limit(10).forEach(message -> System.out.println("  " + message));
+        }
+    }
+
+    private void report(double seconds, Map<String, Histogram> latencies, Map<String, Long> errors) {
+        System.out.printf("%n%-16s %9s %9s %7s %8s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Req/s", "Errors", "Error %", "p50 ms", "p99 ms", "p99.9 ms", "Max ms");
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long failed = errors.get(entry.getKey());
+            total.add(histogram);
+            totalErrors += failed;
+            printRow(entry.getKey(), histogram, failed, seconds);
+        }
+        printRow("all", total, totalErrors, seconds);
+    }
+
+    private static void printRow(String name, Histogram histogram, long errors, double seconds) {
+        long count = histogram.getTotalCount();
+        System.out.printf("%-16s %9d %9.1f %7d %7.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                name, count, count / seconds, errors, count == 0 ? 0 : 100.0 * errors / count,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private void virtualUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running.get()) {
+            try {
+                String token = authenticate(random);
+                if (token == null) {
+                    continue;
+                }
+                for (int test = 0; test < testsPerSession && running.get(); test++) {
+                    int wordCount = words > 0 ? words : WORD_COUNTS[random.nextInt(WORD_COUNTS.length)];
+                    JsonNode text = call("text", get("/api/typing/text?words=" + wordCount, token));
+                    if (text == null) {
+                        continue;
+                    }
+                    call("submit", post("/api/typing/submit", token,
+                            submission(text.path("text").asText(), text.path("session").asText(), random)));
+                    call("stats", get("/api/dashboard/stats", token));
+                }
+                // Tags this session's "browser" has seen, by path
+                Map<String, String> etags = new HashMap<>();
+                for (int view = 0; view <= viewsPerSession && running.get(); view++) {
+                    String name = view == 0 ? "" : "-repeat";
+                    revalidate("stats" + name, "/api/dashboard/stats", token, etags);
+                    revalidate("history" + name, "/api/dashboard/history?page=0&size=10", token, etags);
+                    revalidate("profile" + name, "/api/dashboard/profile", token, etags);
+                    revalidate("progress" + name, "/api/dashboard/progress?bucket=week", token, etags);
+                }
+                call("percentile", get("/api/dashboard/percentile?duration=60", token));
+                call("leaderboard", get("/api/leaderboard?limit=10&duration=60", token));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Sign up a new user for a share of sessions, otherwise log in as a seeded one
+    private String authenticate(ThreadLocalRandom random) throws InterruptedException {
+        JsonNode auth;
+        if (seedUsers == 0 || random.nextInt(100) < signupPercent) {
+            String username = "lt-" + runId + "-" + signups.incrementAndGet();
+            auth = call("signup", post("/api/auth/signup", null, Map.of(
+                    "username", username,
+                    "email", username + "@loadtest.local",
+                    "password", PASSWORD)));
+        } else {
+            auth = call("login", post("/api/auth/login", null, Map.of(
+                    "username", seedUsername(1 + random.nextInt(seedUsers)),
+                    "password", PASSWORD)));
+        }
+        return auth == null ? null : auth.path("token").asText(null);
+    }
+
+    // Retype the text at a plausible speed with about 3% substitutions
+    private static Map<String, Object> submission(String original, String session, ThreadLocalRandom random) {
+        char[] typed = original.toCharArray();
+        for (int i = 0; i < typed.length; i++) {
+            if (random.nextInt(100) < 3) {
+                typed[i] = (char) ('a' + random.nextInt(26));
+            }
+        }
+        int wpm = 40 + random.nextInt(80);
+        int durationMillis = (int) Math.max(1000, original.length() / 5.0 / wpm * 60_000);
+        return Map.of(
+                "session", session,
+                "typedText", new String(typed),
+                "duration", Math.max(1, durationMillis / 1000),
+                "durationMillis", durationMillis);
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, Map<String, Object> body) {
+        try {
+            return request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * Send a request, recording its latency, and return the parsed body or null on failure
+     */
+    private JsonNode call(String name, HttpRequest request) throws InterruptedException {
+        HttpResponse<String> response = send(name, request);
+        if (response == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (Exception e) {
+            endpoints.get(name).errors.incrementAndGet();
+            addError(name + ": " + e);
+            return null;
+        }
+    }
+
+    // Conditional GET with the last tag seen for the path; a 304 counts as a success
+    private void revalidate(String name, String path, String token, Map<String, String> etags)
+            throws InterruptedException {
+        HttpRequest.Builder builder = request(path, token).GET();
+        String etag = etags.get(path);
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        HttpResponse<String> response = send(name, builder.build());
+        if (response != null) {
+            response.headers().firstValue("ETag").ifPresent(tag -> etags.put(path, tag));
+        }
+    }
+
+    /**
+     * Send a request, recording its latency; returns null and counts an error unless it is 2xx or 304
+     */
+    private HttpResponse<String> send(String name, HttpRequest request) throws InterruptedException {
+        Endpoint endpoint = endpoints.get(name);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            endpoint.record(start);
+            if (response.statusCode() / 100 != 2 && response.statusCode() != 304) {
+                endpoint.errors.incrementAndGet();
+                addError(name + " " + response.statusCode() + ": " + response.body());
+                return null;
+            }
+            return response;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            endpoint.record(start);
+            endpoint.errors.incrementAndGet();
+            addError(name + ": " + e);
+            return null;
+        }
+    }
+
+    private void addError(String message) {
+        if (errorMessages.size() < 10) {
+            errorMessages.add(message.length() > 200 ? message.substring(0, 200) : message);
+        }
+    }
+
+    private static String seedUsername(int index) {
+        return "seed-" + index;
+    }
+
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private static final class Endpoint {
+        final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long startNanos) {
+            long micros = (System.nanoTime() - startNanos) / 1000;
+            recorder.recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+        }
+
+        void reset() {
+            recorder.reset();
+            errors.set(0);
+        }
+    }
+}
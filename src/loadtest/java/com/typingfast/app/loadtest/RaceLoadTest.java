@@ -0,0 +1,379 @@
+package com.typingfast.app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Drives many concurrent race rooms against a running server.
+ *
+ * Every room gets its own code and players drawn from a pool of test users,
+ * each typing one character per interval and reporting every keystroke.
+ * Measures how long a reported position takes to come back in a room broadcast.
+ * Keep the pool large: results for one user serialize on its stats rows.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="url=http://localhost:8080 rooms=1000 players=4 wpm=80"
+ */
+public class RaceLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Latency histogram at 1 ms resolution; slower samples share the last bucket
+    private static final int MAX_LATENCY_MS = 10_000;
+
+    private final String baseUrl;
+    private final int rooms;
+    private final int players;
+    private final int users;
+    private final int words;
+    private final long keystrokeMillis;
+    private final long timeoutSeconds;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ScheduledExecutorService typists;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MS + 1);
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger connectFailures = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final Set<String> errorMessages = ConcurrentHashMap.newKeySet();
+    private final AtomicLong progressSent = new AtomicLong();
+    private final AtomicLong snapshotsReceived = new AtomicLong();
+    private CountDownLatch finished;
+
+    RaceLoadTest(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        this.rooms = Integer.parseInt(options.getOrDefault("rooms", "1000"));
+        this.players = Integer.parseInt(options.getOrDefault("players", "4"));
+        // At least one user per seat, since a user can only be in a room once
+        this.users = Math.max(players, Integer.parseInt(options.getOrDefault("users", "100")));
+        this.words = Integer.parseInt(options.getOrDefault("words", "30"));
+        // 5 characters per word: 80 wpm is one keystroke every 150 ms
+        int wpm = Integer.parseInt(options.getOrDefault("wpm", "80"));
+        this.keystrokeMillis = Math.max(1, 60_000L / (wpm * 5L));
+        this.timeoutSeconds = Long.parseLong(options.getOrDefault("timeout", "300"));
+        this.typists = Executors.newScheduledThreadPool(
+                Integer.parseInt(options.getOrDefault("threads", "4")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        new RaceLoadTest(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            tokens.add(signUp(username(i)));
+        }
+
+        int clients = rooms * players;
+        finished = new CountDownLatch(clients);
+        System.out.printf("Connecting %d clients to %d rooms...%n", clients, rooms);
+
+        // Bound in-flight handshakes so the server's accept queue is not the bottleneck
+        Semaphore handshakes = new Semaphore(200);
+        long connectStart = System.nanoTime();
+        for (int room = 0; room < rooms; room++) {
+            String code = "lt-" + runId + "-" + room;
+            // A room's players join together once all of them are connected, so slow
+            // handshakes cannot leave anyone behind in a room that already started
+            List<Client> roomClients = new ArrayList<>(players);
+            AtomicInteger pending = new AtomicInteger(players);
+            for (int player = 0; player < players; player++) {
+                handshakes.acquire();
+                // Consecutive users, so the players in a room are always distinct
+                int user = (room * players + player) % users;
+                Client client = new Client(code, username(user));
+                roomClients.add(client);
+                URI uri = URI.create(baseUrl.replaceFirst("^http", "ws") + "/ws/race?token=" + tokens.get(user));
+                http.newWebSocketBuilder()
+                        .connectTimeout(Duration.ofSeconds(30))
+                        .buildAsync(uri, client)
+                        .whenComplete((socket, failure) -> {
+                            if (failure != null) {
+                                connectFailures.incrementAndGet();
+                                error(failure.toString());
+                                finished.countDown();
+                            } else {
+                                connected.incrementAndGet();
+                                client.connected(socket);
+                            }
+                            if (pending.decrementAndGet() == 0) {
+                                roomClients.forEach(Client::join);
+                            }
+                            handshakes.release();
+                        });
+            }
+        }
+        handshakes.acquire(200);
+        double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+        System.out.printf("Connected %d (%d failed) in %.1f s%n", connected.get(), connectFailures.get(), connectSeconds);
+
+        long raceStart = System.nanoTime();
+        boolean completed = finished.await(timeoutSeconds, TimeUnit.SECONDS);
+        double raceSeconds = (System.nanoTime() - raceStart) / 1e9;
+        typists.shutdownNow();
+        report(completed, raceSeconds);
+    }
+
+    private String username(int index) {
+        return "race-" + runId + "-" + index;
+    }
+
+    private String signUp(String username) throws Exception {
+        String body = MAPPER.writeValueAsString(Map.of(
+                "username", username,
+                "password", "loadtest-password",
+                "email", username + "@loadtest.invalid"));
+        HttpResponse<String> response = http.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signup"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Sign up failed: " + response.statusCode() + " " + response.body());
+        }
+        return MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    private void report(boolean completed, double seconds) {
+        long samples = 0;
+        for (int i = 0; i <= MAX_LATENCY_MS; i++) {
+            samples += latencies.get(i);
+        }
+        int clients = rooms * players;
+        System.out.println();
+        System.out.printf("Rooms                 %d x %d players%n", rooms, players);
+        System.out.printf("Clients finished      %d / %d%s%n",
+                clients - finished.getCount(), clients, completed ? "" : " (timed out)");
+        System.out.printf("Errors                %d%n", errors.get());
+        errorMessages.forEach(message -> System.out.println("  " + message));
+        System.out.printf("Progress sent         %d (%.0f/s)%n", progressSent.get(), progressSent.get() / seconds);
+        System.out.printf("Snapshots received    %d (%.0f/s, %.1f/s per client)%n",
+                snapshotsReceived.get(), snapshotsReceived.get() / seconds,
+                snapshotsReceived.get() / seconds / Math.max(1, connected.get()));
+        System.out.printf("Report-to-broadcast   p50 %d ms  p95 %d ms  p99 %d ms  max %d ms  (%d samples)%n",
+                percentile(samples, 0.50), percentile(samples, 0.95), percentile(samples, 0.99),
+                percentile(samples, 1.0), samples);
+    }
+
+    private void error(String message) {
+        errors.incrementAndGet();
+        if (errorMessages.size() < 5) {
+            errorMessages.add(message);
+        }
+    }
+
+    private int percentile(long samples, double quantile) {
+        long target = (long) Math.ceil(samples * quantile);
+        long seen = 0;
+        for (int i = 0; i <= MAX_LATENCY_MS; i++) {
+            seen += latencies.get(i);
+            if (seen >= Math.max(target, 1)) {
+                return i;
+            }
+        }
+        return MAX_LATENCY_MS;
+    }
+
+    /**
+     * One simulated player
+     */
+    private final class Client implements WebSocket.Listener {
+
+        private final String room;
+        private final String username;
+        private final StringBuilder partial = new StringBuilder();
+        private final ByteArrayOutputStream partialBinary = new ByteArrayOutputStream();
+
+        private volatile WebSocket socket;
+        // Sends must not overlap on a JDK WebSocket, so each one waits for the last
+        private CompletableFuture<WebSocket> lastSend;
+        private volatile String text;
+        private volatile long[] sentAt;
+        private volatile ScheduledFuture<?> typing;
+        private int position;
+        private int lastSeen;
+        private boolean done;
+
+        Client(String room, String username) {
+            this.room = room;
+            this.username = username;
+        }
+
+        synchronized void connected(WebSocket socket) {
+            this.socket = socket;
+            lastSend = CompletableFuture.completedFuture(socket);
+        }
+
+        void join() {
+            if (socket != null) {
+                send(Map.of("type", "join", "room", room, "words", words));
+            }
+        }
+
+        private synchronized void send(Object message) {
+            String json;
+            try {
+                json = MAPPER.writeValueAsString(message);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            lastSend = lastSend.thenCompose(ws -> ws.sendText(json, true));
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String message = partial.toString();
+                partial.setLength(0);
+                try {
+                    handle(MAPPER.readTree(message));
+                } catch (Exception e) {
+                    error(e.toString());
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void handle(JsonNode message) {
+            switch (message.path("type").asText()) {
+                case "joined" -> {
+                    String joinedText = message.path("text").asText();
+                    sentAt = new long[joinedText.length() + 1];
+                    text = joinedText;
+                }
+                case "race" -> onSnapshot(message);
+                case "finished" -> complete();
+                case "error" -> {
+                    error(message.path("message").asText());
+                    complete();
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void onSnapshot(JsonNode snapshot) {
+            snapshotsReceived.incrementAndGet();
+            long now = System.nanoTime();
+            for (JsonNode player : snapshot.path("players")) {
+                if (username.equals(player.path("username").asText())) {
+                    recordLatencies(player.path("position").asInt(), now);
+                }
+            }
+            if (typing == null && "running".equals(snapshot.path("state").asText())) {
+                typing = typists.scheduleAtFixedRate(this::typeOne,
+                        ThreadLocalRandom.current().nextLong(keystrokeMillis), keystrokeMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private synchronized void recordLatencies(int seen, long now) {
+            long[] times = sentAt;
+            for (int p = lastSeen + 1; p <= seen && times != null && p < times.length; p++) {
+                if (times[p] != 0) {
+                    int millis = (int) Math.min(MAX_LATENCY_MS, (now - times[p]) / 1_000_000);
+                    latencies.incrementAndGet(millis);
+                }
+            }
+            lastSeen = Math.max(lastSeen, seen);
+        }
+
+        private synchronized void typeOne() {
+            if (done || text == null) {
+                return;
+            }
+            position++;
+            if (position >= text.length()) {
+                send(Map.of("type", "finish", "typedText", text));
+                typing.cancel(false);
+                return;
+            }
+            sentAt[position] = System.nanoTime();
+            send(Map.of("type", "progress", "position", position));
+            progressSent.incrementAndGet();
+        }
+
+        private synchronized void complete() {
+            if (!done) {
+                done = true;
+                if (typing != null) {
+                    typing.cancel(false);
+                }
+                finished.countDown();
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            // Snapshots are binary frames of UTF-8 JSON
+            byte[] chunk = new byte[data.remaining()];
+            data.get(chunk);
+            partialBinary.writeBytes(chunk);
+            if (last) {
+                byte[] message = partialBinary.toByteArray();
+                partialBinary.reset();
+                try {
+                    handle(MAPPER.readTree(message));
+                } catch (Exception e) {
+                    error(e.toString());
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            if (!done) {
+                error("Closed with " + statusCode + " " + reason);
+            }
+            complete();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            error(error.toString());
+            complete();
+        }
+    }
+}
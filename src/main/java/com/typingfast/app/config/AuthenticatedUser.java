@@ -0,0 +1,31 @@
+package com.typingfast.app.config;
+
+import lombok.Getter;
+
+import java.security.Principal;
+
+/**
+ * Principal built from verified JWT claims, so authenticated requests
+ * carry the user id without loading the User row.
+ */
+@Getter
+public class AuthenticatedUser implements Principal {
+
+    private final Long id;
+    private final String username;
+
+    public AuthenticatedUser(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -37,8 +37,8 @@ public class CorsConfig {
                 "Origin",
                 "X-Requested-With"));
 
-        // Expose Authorization header to frontend
-        configuration.setExposedHeaders(List.of("Authorization"));
+        // Expose Authorization header to frontend, and Retry-After on 429/503
+        configuration.setExposedHeaders(List.of("Authorization", "Retry-After"));
 
         // Allow credentials (cookies, auth headers)
         configuration.setAllowCredentials(false); // Set to false when using "*" for origins
@@ -1,30 +1,58 @@
 package com.typingfast.app.config;
 
+import com.typingfast.app.entity.User;
+import com.typingfast.app.repository.UserRepository;
 import com.typingfast.app.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    // Share of requests logged at DEBUG; the jwt.filter timer counts all of them
+    private final double debugSampleRate;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    private final Timer anonymousTimer;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.filter.debug-sample-rate:0.01}") double debugSampleRate) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.userRepository = userRepository;
+        this.debugSampleRate = debugSampleRate;
+        this.anonymousTimer = filterTimer(meterRegistry, "anonymous");
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = filterTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.filter")
+                .description("Time spent authenticating a request, excluding the rest of the chain")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
@@ -33,50 +61,67 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
+        Timer.Sample sample = Timer.start();
+        boolean debug = logger.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < debugSampleRate;
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
         final String username;
 
-        logger.info("Processing request: " + request.getRequestURI());
-
         // Check if Authorization header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            logger.info("No Bearer token found for: " + request.getRequestURI());
+            if (debug) {
+                logger.debug("No Bearer token found for: " + request.getRequestURI());
+            }
+            sample.stop(anonymousTimer);
             filterChain.doFilter(request, response);
             return;
         }
 
         // Extract token (remove "Bearer " prefix)
         jwt = authHeader.substring(7);
-        logger.info("Token found, validating...");
+        Timer outcome = rejectedTimer;
 
         try {
-            // Extract username from token
-            username = jwtService.extractUsername(jwt);
-            logger.info("Extracted username: " + username);
+            // Verify once (signature and expiry), then read every claim from the result
+            Claims claims = jwtService.verify(jwt);
+            username = claims.getSubject();
 
             // If username exists and no authentication in context
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                Long userId = JwtService.userId(claims);
+
+                // Tokens issued before the uid claim existed need one lookup
+                if (userId == null) {
+                    userId = userRepository.findByUsername(username).map(User::getId).orElse(null);
+                }
 
-                // Validate token
-                if (jwtService.validateToken(jwt, userDetails)) {
+                if (userId != null) {
+                    AuthenticatedUser principal = new AuthenticatedUser(userId, username);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities());
+                            Collections.emptyList());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("Authentication successful for: " + username);
-                } else {
-                    logger.warn("Token validation failed for: " + username);
+                    outcome = authenticatedTimer;
+                    if (debug) {
+                        logger.debug("Authenticated " + username + " for: " + request.getRequestURI());
+                    }
+                } else if (debug) {
+                    logger.debug("Token validation failed for: " + username);
                 }
+            } else if (username != null) {
+                // Already authenticated earlier in the chain
+                outcome = authenticatedTimer;
             }
         } catch (Exception e) {
             // Invalid token - just continue without authentication
-            logger.error("JWT validation error: " + e.getMessage());
+            if (debug) {
+                logger.debug("JWT validation error: " + e.getMessage());
+            }
         }
 
+        sample.stop(outcome);
         filterChain.doFilter(request, response);
     }
 }
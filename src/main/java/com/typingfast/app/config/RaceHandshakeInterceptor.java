@@ -0,0 +1,92 @@
+package com.typingfast.app.config;
+
+import com.typingfast.app.entity.User;
+import com.typingfast.app.repository.UserRepository;
+import com.typingfast.app.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates race connections. Browsers cannot set headers on a WebSocket
+ * handshake, so besides the usual Bearer header the JWT may be passed as
+ * ?token=. Races record results, so anonymous connections are refused.
+ */
+@Component
+public class RaceHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ATTRIBUTE = "raceUser";
+
+    private static final Logger log = LoggerFactory.getLogger(RaceHandshakeInterceptor.class);
+
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+
+    public RaceHandshakeInterceptor(JwtService jwtService, UserRepository userRepository) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean beforeHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+        AuthenticatedUser user = authenticate(request);
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(USER_ATTRIBUTE, user);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Exception exception) {
+    }
+
+    private AuthenticatedUser authenticate(ServerHttpRequest request) {
+        // Already done by JwtAuthenticationFilter when the header was sent
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
+        }
+
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (token == null) {
+            return null;
+        }
+        try {
+            Claims claims = jwtService.verify(token);
+            String username = claims.getSubject();
+            Long userId = JwtService.userId(claims);
+            // Tokens issued before the uid claim existed need one lookup
+            if (userId == null && username != null) {
+                userId = userRepository.findByUsername(username).map(User::getId).orElse(null);
+            }
+            if (userId == null || username == null) {
+                return null;
+            }
+            return new AuthenticatedUser(userId, username);
+        } catch (Exception e) {
+            log.debug("Race handshake rejected: {}", e.getMessage());
+            return null;
+        }
+    }
+}
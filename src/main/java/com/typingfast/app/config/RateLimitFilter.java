@@ -0,0 +1,103 @@
+package com.typingfast.app.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route token buckets for the public endpoints, keyed by user id when the
+ * JWT filter authenticated the request and by client address otherwise.
+ * Runs after JwtAuthenticationFilter; requests over the limit get 429 with
+ * Retry-After in seconds.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Client addresses get the sign bit so they never share a bucket with a user id
+    private static final long ADDRESS_KEY = Long.MIN_VALUE;
+
+    private record Route(RateLimiter limiter, Counter rejected) {
+    }
+
+    private final Map<String, Route> routes = new HashMap<>();
+
+    public RateLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.routes:/api/typing/text=30/10s,/api/typing/submit=20/1m}") List<String> rules,
+            @Value("${rate-limit.max-keys:65536}") int maxKeys) {
+        if (!enabled) {
+            return;
+        }
+        for (String rule : rules) {
+            // path=capacity/period, e.g. /api/typing/submit=20/1m
+            int equals = rule.indexOf('=');
+            int slash = rule.indexOf('/', equals);
+            if (equals < 1 || slash < 0) {
+                throw new IllegalArgumentException("Rate limit rule must look like /path=20/1m: " + rule);
+            }
+            String path = rule.substring(0, equals).trim();
+            int capacity = Integer.parseInt(rule.substring(equals + 1, slash).trim());
+            long periodNanos = DurationStyle.detectAndParse(rule.substring(slash + 1).trim()).toNanos();
+            Counter rejected = Counter.builder("rate_limit.rejected")
+                    .description("Requests refused with 429")
+                    .tag("route", path)
+                    .register(meterRegistry);
+            routes.put(path, new Route(new RateLimiter(capacity, periodNanos, maxKeys), rejected));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        // Path within the application, so the rules hold under any server.servlet.context-path
+        Route route = routes.get(request.getServletPath());
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = route.limiter().tryAcquire(key(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        route.rejected().increment();
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, please slow down");
+    }
+
+    private static long key(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return ADDRESS_KEY | (request.getRemoteAddr().hashCode() & 0xffffffffL);
+    }
+}
@@ -0,0 +1,128 @@
+package com.typingfast.app.config;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket per key in a fixed-size, lock-free table.
+ *
+ * Each bucket is one long: the time at which it will be full again (the
+ * "theoretical arrival time" of GCRA, which admits exactly what a token
+ * bucket of the same capacity and refill rate admits). Taking a token moves
+ * it one interval later with a single CAS; the request is refused if that
+ * would put it more than capacity intervals ahead of now.
+ *
+ * Keys hash to a stripe of WAYS slots, each holding a key fingerprint and
+ * its bucket, so memory is fixed at construction. A bucket whose refill time
+ * has passed is full, which is the same as having no state, so idle keys are
+ * replaced without losing anything. When every slot of a stripe is busy, the
+ * fullest bucket is taken over and the newcomer inherits whatever it has left,
+ * which is less than a fresh bucket. The evicted key comes back the same way,
+ * and what it finds is no fuller than what it lost: it had the fullest bucket
+ * of the stripe when evicted, and a slot's refill time only ever moves later,
+ * so no slot can have refilled past it in the meantime. Sharing a slot under
+ * churn therefore only errs towards limiting more.
+ */
+final class RateLimiter {
+
+    static final int WAYS = 4;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int stripeMask;
+    private final long origin = System.nanoTime();
+
+    // Fingerprint (0 = free) and refill-complete time per slot, stripe after stripe
+    private final AtomicLongArray keys;
+    private final AtomicLongArray fullAt;
+
+    /**
+     * @param capacity requests allowed in a burst, and refilled over each period
+     * @param periodNanos time to refill an empty bucket
+     * @param maxKeys keys tracked at once, rounded up to a power of two
+     */
+    RateLimiter(int capacity, long periodNanos, int maxKeys) {
+        if (capacity < 1 || periodNanos < 1) {
+            throw new IllegalArgumentException("Rate limits need a positive capacity and period");
+        }
+        this.intervalNanos = Math.max(periodNanos / capacity, 1);
+        this.burstNanos = intervalNanos * capacity;
+        int wanted = Math.max((maxKeys + WAYS - 1) / WAYS, 1);
+        int stripes = wanted == 1 ? 1 : Integer.highestOneBit(wanted - 1) << 1;
+        this.stripeMask = stripes - 1;
+        this.keys = new AtomicLongArray(stripes * WAYS);
+        this.fullAt = new AtomicLongArray(stripes * WAYS);
+    }
+
+    /**
+     * Take a token for the key
+     *
+     * @return 0 if allowed, otherwise how many nanoseconds until a token is available
+     */
+    long tryAcquire(long key) {
+        return tryAcquire(key, System.nanoTime() - origin);
+    }
+
+    // Same, at a given time in nanoseconds since the limiter was created
+    long tryAcquire(long key, long now) {
+        long hash = mix(key);
+        long fingerprint = hash == 0 ? 1 : hash;
+        int slot = slot(fingerprint, (int) (hash >>> 32) & stripeMask, now);
+
+        while (true) {
+            long current = fullAt.get(slot);
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(slot, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // The key's slot in its stripe, claiming an idle or the fullest one if the key has none
+    private int slot(long fingerprint, int stripe, long now) {
+        int base = stripe * WAYS;
+        for (int i = base; i < base + WAYS; i++) {
+            if (keys.get(i) == fingerprint) {
+                return i;
+            }
+        }
+
+        int fullest = base;
+        long fullestAt = Long.MAX_VALUE;
+        for (int i = base; i < base + WAYS; i++) {
+            long owner = keys.get(i);
+            long at = fullAt.get(i);
+            if (owner == 0 || at <= now) {
+                // Losing the race is fine if the winner was the same key
+                if (keys.compareAndSet(i, owner, fingerprint) || keys.get(i) == fingerprint) {
+                    return i;
+                }
+                continue;
+            }
+            if (at < fullestAt) {
+                fullestAt = at;
+                fullest = i;
+            }
+        }
+        keys.set(fullest, fingerprint);
+        return fullest;
+    }
+
+    // Keys tracked at once
+    int capacity() {
+        return keys.length();
+    }
+
+    // Murmur3 finalizer, so neighbouring user ids land in unrelated stripes
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb53a185ec249L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,128 @@
+package com.typingfast.app.config;
+
+import com.typingfast.app.service.ReadYourWritesGuard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything
+ * else to the primary. Reads also stay on the primary for users who wrote a
+ * result moments ago, and for a while after the replica failed to hand out a
+ * connection. Must sit behind a LazyConnectionDataSourceProxy so the
+ * transaction's read-only flag is set before a connection is requested.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWritesGuard guard;
+    private final long retryNanos;
+
+    // System.nanoTime() before which reads skip the replica
+    private volatile long replicaDownUntil;
+    private volatile boolean replicaDown;
+
+    private final Counter writes;
+    private final Counter replicaReads;
+    private final Counter recentWriteReads;
+    private final Counter replicaDownReads;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReadYourWritesGuard guard,
+            long retryMillis,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.guard = guard;
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMillis);
+        this.writes = route(meterRegistry, "primary", "write");
+        this.replicaReads = route(meterRegistry, "replica", "read");
+        this.recentWriteReads = route(meterRegistry, "primary", "recent_write");
+        this.replicaDownReads = route(meterRegistry, "primary", "replica_down");
+        this.fallbacks = route(meterRegistry, "primary", "fallback");
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write routing datasource")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return primary.getConnection();
+        }
+        if (replicaDown && System.nanoTime() - replicaDownUntil < 0) {
+            replicaDownReads.increment();
+            return primary.getConnection();
+        }
+        Long userId = currentUserId();
+        if (userId != null && guard.wroteRecently(userId)) {
+            recentWriteReads.increment();
+            return primary.getConnection();
+        }
+
+        try {
+            Connection connection = replica.getConnection();
+            if (replicaDown) {
+                replicaDown = false;
+                log.info("Read replica is back, routing read-only transactions to it again");
+            }
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            if (!replicaDown) {
+                log.warn("Read replica unavailable, reading from the primary for {} ms: {}",
+                        TimeUnit.NANOSECONDS.toMillis(retryNanos), e.getMessage());
+            }
+            replicaDownUntil = System.nanoTime() + retryNanos;
+            replicaDown = true;
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    // Explicit credentials only make sense for the primary, as in AbstractRoutingDataSource's default target
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // The guard is keyed by the user of the current request, if any
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (replica instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.typingfast.app.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,16 +19,22 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
         private final JwtAuthenticationFilter jwtAuthFilter;
+        private final RateLimitFilter rateLimitFilter;
         private final UserDetailsService userDetailsService;
         private final PasswordEncoder passwordEncoder;
+        private final int managementPort;
 
         public SecurityConfig(
                         JwtAuthenticationFilter jwtAuthFilter,
+                        RateLimitFilter rateLimitFilter,
                         UserDetailsService userDetailsService,
-                        PasswordEncoder passwordEncoder) {
+                        PasswordEncoder passwordEncoder,
+                        @Value("${management.server.port:-1}") int managementPort) {
                 this.jwtAuthFilter = jwtAuthFilter;
+                this.rateLimitFilter = rateLimitFilter;
                 this.userDetailsService = userDetailsService;
                 this.passwordEncoder = passwordEncoder;
+                this.managementPort = managementPort;
         }
 
         @Bean
@@ -36,29 +44,49 @@ public class SecurityConfig {
                                 .cors(cors -> {
                                 })
                                 .authorizeHttpRequests(auth -> auth
+                                                // Actuator (health, prometheus) only on the unpublished management port
+                                                .requestMatchers(this::onManagementPort)
+                                                .permitAll()
                                                 .requestMatchers(
                                                                 "/",
                                                                 "/health",
                                                                 "/api/auth/**",
                                                                 "/api/typing/text",
-                                                                "/api/typing/submit")
+                                                                "/api/typing/corpora",
+                                                                "/api/typing/submit",
+                                                                "/api/leaderboard",
+                                                                // Authenticated by RaceHandshakeInterceptor
+                                                                "/ws/race")
                                                 .permitAll()
                                                 // Explicitly list all dashboard endpoints
                                                 .requestMatchers(
                                                                 "/api/dashboard/profile",
                                                                 "/api/dashboard/stats",
+                                                                "/api/dashboard/percentile",
+                                                                "/api/dashboard/progress",
+                                                                "/api/dashboard/heatmap",
                                                                 "/api/dashboard/history",
-                                                                "/api/dashboard/history/all")
+                                                                "/api/dashboard/history/cursor",
+                                                                "/api/dashboard/history/all",
+                                                                "/api/dashboard/history/export",
+                                                                "/api/dashboard/history/*/keystrokes")
                                                 .authenticated()
                                                 .anyRequest().authenticated())
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                                 .authenticationProvider(authenticationProvider())
-                                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                                // Needs the authenticated user to key its buckets
+                                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
                 return http.build();
         }
 
+        private boolean onManagementPort(HttpServletRequest request) {
+                return managementPort > 0 && request.getLocalPort() == managementPort
+                                && request.getRequestURI().startsWith("/actuator/");
+        }
+
         @Bean
         public AuthenticationProvider authenticationProvider() {
                 DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
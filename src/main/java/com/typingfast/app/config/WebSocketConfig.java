@@ -0,0 +1,27 @@
+package com.typingfast.app.config;
+
+import com.typingfast.app.controller.RaceSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final RaceSocketHandler raceSocketHandler;
+    private final RaceHandshakeInterceptor raceHandshakeInterceptor;
+
+    public WebSocketConfig(RaceSocketHandler raceSocketHandler, RaceHandshakeInterceptor raceHandshakeInterceptor) {
+        this.raceSocketHandler = raceSocketHandler;
+        this.raceHandshakeInterceptor = raceHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(raceSocketHandler, "/ws/race")
+                .addInterceptors(raceHandshakeInterceptor)
+                .setAllowedOrigins("*");
+    }
+}
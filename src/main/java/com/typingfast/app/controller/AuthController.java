@@ -7,62 +7,96 @@ import com.typingfast.app.entity.User;
 import com.typingfast.app.repository.UserRepository;
 import com.typingfast.app.service.JwtService;
 
+import com.typingfast.app.service.AvailabilityService;
+import com.typingfast.app.service.PasswordCheck;
+import com.typingfast.app.service.PasswordHashingService;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final AvailabilityService availabilityService;
 
     public AuthController(
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordHashingService passwordHashingService,
             JwtService jwtService,
-            AuthenticationManager authenticationManager,
-            UserDetailsService userDetailsService) {
+            AvailabilityService availabilityService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
-        this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
+        this.availabilityService = availabilityService;
     }
 
-    // SIGN UP
-    @PostMapping("/signup")
-    public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest request) {
+    /**
+     * Check whether a username and/or email can still be registered
+     * GET /api/auth/available?username=alice&email=alice@example.com
+     */
+    @GetMapping("/available")
+    public ResponseEntity<?> available(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        boolean hasUsername = username != null && !username.isBlank();
+        boolean hasEmail = email != null && !email.isBlank();
+        if (!hasUsername && !hasEmail) {
+            return ResponseEntity.badRequest().body("Pass a username or an email");
+        }
 
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
-            return ResponseEntity.badRequest().body("Username already exists");
+        Map<String, Boolean> response = new LinkedHashMap<>();
+        if (hasUsername) {
+            response.put("username", availabilityService.isUsernameAvailable(username));
+        }
+        if (hasEmail) {
+            response.put("email", availabilityService.isEmailAvailable(email));
         }
+        return ResponseEntity.ok(response);
+    }
 
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest().body("Email already present");
+    // SIGN UP
+    @PostMapping("/signup")
+    public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest request) {
+        String hash;
+        try {
+            hash = passwordHashingService.hash(request.getPassword());
+        } catch (RejectedExecutionException e) {
+            return overloaded();
         }
 
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(hash)
                 .build();
 
-        userRepository.save(user);
+        // A single INSERT; the unique keys catch duplicates, and only then do we look up which one
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Possibly created on another instance; remember it for availability checks
+            if (userRepository.existsByUsername(request.getUsername())) {
+                availabilityService.register(request.getUsername(), null);
+                return ResponseEntity.badRequest().body("Username already exists");
+            }
+            availabilityService.register(null, request.getEmail());
+            return ResponseEntity.badRequest().body("Email already present");
+        }
+        availabilityService.register(user.getUsername(), user.getEmail());
 
         // Generate token for the new user
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(user);
 
         AuthResponse response = AuthResponse.builder()
                 .token(token)
@@ -78,22 +112,25 @@ public class AuthController {
     // LOGIN
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+        // Loaded once: the same row supplies the hash to check and the token claims
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+
+        PasswordCheck check;
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(),
-                            request.getPassword()));
-        } catch (Exception e) {
+            check = passwordHashingService.verify(request.getPassword(), user == null ? null : user.getPassword());
+        } catch (RejectedExecutionException e) {
+            return overloaded();
+        }
+        if (user == null || !check.matches()) {
             return ResponseEntity.status(401).body("Invalid credentials");
         }
 
-        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
-        if (user == null) {
-            return ResponseEntity.status(401).body("Invalid credentials");
+        // The work factor changed since this hash was made
+        if (check.rehashed() != null) {
+            userRepository.updatePassword(user.getId(), check.rehashed());
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(user);
 
         AuthResponse response = AuthResponse.builder()
                 .token(token)
@@ -105,4 +142,10 @@ public class AuthController {
 
         return ResponseEntity.ok(response);
     }
+
+    private static ResponseEntity<String> overloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body("Too many sign-ins right now, please try again");
+    }
 }
@@ -1,29 +1,66 @@
 package com.typingfast.app.controller;
 
+import com.typingfast.app.config.AuthenticatedUser;
+import com.typingfast.app.dto.HeatmapResponse;
+import com.typingfast.app.dto.HistorySliceResponse;
+import com.typingfast.app.dto.PercentileResponse;
+import com.typingfast.app.dto.ProgressResponse;
 import com.typingfast.app.dto.TypingHistoryResponse;
 import com.typingfast.app.dto.UserProfileResponse;
 import com.typingfast.app.dto.UserStatsResponse;
-import com.typingfast.app.entity.User;
-import com.typingfast.app.repository.UserRepository;
 import com.typingfast.app.service.DashboardService;
+import com.typingfast.app.service.DataVersionService;
+import com.typingfast.app.service.HistoryExportService;
+import com.typingfast.app.service.KeyStatsService;
+import com.typingfast.app.service.KeystrokeService;
+import com.typingfast.app.service.PercentileService;
+import com.typingfast.app.service.ProgressService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/dashboard")
 @CrossOrigin(origins = "*")
 public class DashboardController {
 
+    // Browsers may keep a copy but must revalidate it with If-None-Match every time
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final DashboardService dashboardService;
-    private final UserRepository userRepository;
+    private final HistoryExportService historyExportService;
+    private final PercentileService percentileService;
+    private final KeyStatsService keyStatsService;
+    private final KeystrokeService keystrokeService;
+    private final ProgressService progressService;
+    private final DataVersionService dataVersionService;
 
-    public DashboardController(DashboardService dashboardService, UserRepository userRepository) {
+    public DashboardController(
+            DashboardService dashboardService,
+            HistoryExportService historyExportService,
+            PercentileService percentileService,
+            KeyStatsService keyStatsService,
+            KeystrokeService keystrokeService,
+            ProgressService progressService,
+            DataVersionService dataVersionService) {
         this.dashboardService = dashboardService;
-        this.userRepository = userRepository;
+        this.historyExportService = historyExportService;
+        this.percentileService = percentileService;
+        this.keyStatsService = keyStatsService;
+        this.keystrokeService = keystrokeService;
+        this.progressService = progressService;
+        this.dataVersionService = dataVersionService;
     }
 
     /**
@@ -31,14 +68,24 @@ public class DashboardController {
      * GET /api/dashboard/profile
      */
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(Authentication authentication) {
-        User user = getAuthenticatedUser(authentication);
+    public ResponseEntity<?> getProfile(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
         if (user == null) {
             return ResponseEntity.status(401).body("User not authenticated");
         }
 
-        UserProfileResponse profile = dashboardService.getUserProfile(user);
-        return ResponseEntity.ok(profile);
+        String etag = dataVersionService.etag(user.getId());
+        if (dataVersionService.notModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        Optional<UserProfileResponse> profile = dashboardService.getUserProfile(user.getId());
+        if (profile.isEmpty()) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(profile.get());
     }
 
     /**
@@ -46,14 +93,95 @@ public class DashboardController {
      * GET /api/dashboard/stats
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getStats(Authentication authentication) {
-        User user = getAuthenticatedUser(authentication);
+    public ResponseEntity<?> getStats(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
+        if (user == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+
+        String etag = dataVersionService.etag(user.getId());
+        if (dataVersionService.notModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        UserStatsResponse stats = dashboardService.getUserStats(user.getId());
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(stats);
+    }
+
+    /**
+     * Get where the user's averages and best rank among all results
+     * GET /api/dashboard/percentile?duration=60
+     */
+    @GetMapping("/percentile")
+    public ResponseEntity<?> getPercentile(
+            Authentication authentication,
+            @RequestParam(required = false) Integer duration) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
+        if (user == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+
+        try {
+            PercentileResponse percentile = percentileService.getUserPercentiles(user.getId(), duration);
+            return ResponseEntity.ok(percentile);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get WPM and accuracy per day, week or month with moving averages and trend
+     * GET /api/dashboard/progress?bucket=week&from=2025-01-01&to=2025-06-30&window=4
+     */
+    @GetMapping("/progress")
+    public ResponseEntity<?> getProgress(
+            Authentication authentication,
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "7") int window,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
+        if (user == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+
+        // The default range ends today, so the response also changes at midnight
+        String etag = dataVersionService.etag(user.getId(), LocalDate.now());
+        if (dataVersionService.notModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        try {
+            ProgressResponse progress = progressService.getProgress(user.getId(), bucket, from, to, window);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(progress);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get per-key and per-bigram error rates
+     * GET /api/dashboard/heatmap
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<?> getHeatmap(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
         if (user == null) {
             return ResponseEntity.status(401).body("User not authenticated");
         }
 
-        UserStatsResponse stats = dashboardService.getUserStats(user);
-        return ResponseEntity.ok(stats);
+        String etag = dataVersionService.etag(user.getId());
+        if (dataVersionService.notModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        HeatmapResponse heatmap = keyStatsService.getHeatmap(user.getId());
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(heatmap);
     }
 
     /**
@@ -64,39 +192,116 @@ public class DashboardController {
     public ResponseEntity<?> getHistory(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        User user = getAuthenticatedUser(authentication);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
         if (user == null) {
             return ResponseEntity.status(401).body("User not authenticated");
         }
 
-        Page<TypingHistoryResponse> history = dashboardService.getTypingHistory(user, page, size);
-        return ResponseEntity.ok(history);
+        String etag = dataVersionService.etag(user.getId());
+        if (dataVersionService.notModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        Page<TypingHistoryResponse> history = dashboardService.getTypingHistory(user.getId(), page, size);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(history);
     }
 
     /**
-     * Get all typing history (no pagination)
-     * GET /api/dashboard/history/all
+     * Get typing history with keyset pagination; pass nextCursor back to continue
+     * GET /api/dashboard/history/cursor?cursor=...&size=10
      */
-    @GetMapping("/history/all")
-    public ResponseEntity<?> getAllHistory(Authentication authentication) {
-        User user = getAuthenticatedUser(authentication);
+    @GetMapping("/history/cursor")
+    public ResponseEntity<?> getHistorySlice(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
         if (user == null) {
             return ResponseEntity.status(401).body("User not authenticated");
         }
 
-        List<TypingHistoryResponse> history = dashboardService.getAllTypingHistory(user);
-        return ResponseEntity.ok(history);
+        String etag = dataVersionService.etag(user.getId());
+        if (dataVersionService.notModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        try {
+            HistorySliceResponse history = dashboardService.getTypingHistorySlice(user.getId(), cursor, size);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(history);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get keystroke timing statistics for one of the user's results
+     * GET /api/dashboard/history/{resultId}/keystrokes
+     */
+    @GetMapping("/history/{resultId}/keystrokes")
+    public ResponseEntity<?> getKeystrokes(Authentication authentication, @PathVariable Long resultId) {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
+        if (user == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+
+        return keystrokeService.getStats(user.getId(), resultId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get all typing history (no pagination), streamed as a JSON array
+     * GET /api/dashboard/history/all
+     */
+    @GetMapping(value = "/history/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getAllHistory(Authentication authentication, HttpServletResponse response) throws IOException {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
+        if (user == null) {
+            response.sendError(401, "User not authenticated");
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        historyExportService.writeJsonArray(user.getId(), response.getOutputStream());
     }
 
     /**
-     * Helper method to get authenticated user
+     * Export all typing history as newline-delimited JSON
+     * GET /api/dashboard/history/export
      */
-    private User getAuthenticatedUser(Authentication authentication) {
+    @GetMapping(value = "/history/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportHistory(Authentication authentication, HttpServletResponse response) throws IOException {
+        AuthenticatedUser user = getAuthenticatedUser(authentication);
+        if (user == null) {
+            response.sendError(401, "User not authenticated");
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"typing-history.ndjson\"");
+        historyExportService.writeNdjson(user.getId(), response.getOutputStream());
+    }
+
+    /**
+     * 304 for a client whose copy still carries the current tag; answered before any query runs
+     */
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    /**
+     * Helper method to get authenticated user (built from the token, no query)
+     */
+    private AuthenticatedUser getAuthenticatedUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
         }
-        String username = authentication.getName();
-        return userRepository.findByUsername(username).orElse(null);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
+        }
+        return null;
     }
 }
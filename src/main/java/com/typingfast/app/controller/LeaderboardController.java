@@ -0,0 +1,42 @@
+package com.typingfast.app.controller;
+
+import com.typingfast.app.config.AuthenticatedUser;
+import com.typingfast.app.dto.LeaderboardResponse;
+import com.typingfast.app.service.LeaderboardService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    /**
+     * Top users by best WPM, plus the caller's own rank when logged in
+     * GET /api/leaderboard?limit=10&duration=60
+     */
+    @GetMapping
+    public ResponseEntity<?> getLeaderboard(
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer duration) {
+        Long userId = null;
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            userId = principal.getId();
+        }
+
+        try {
+            LeaderboardResponse leaderboard = leaderboardService.getLeaderboard(duration, limit, userId);
+            return ResponseEntity.ok(leaderboard);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
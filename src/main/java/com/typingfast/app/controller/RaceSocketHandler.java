@@ -0,0 +1,71 @@
+package com.typingfast.app.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typingfast.app.config.AuthenticatedUser;
+import com.typingfast.app.config.RaceHandshakeInterceptor;
+import com.typingfast.app.service.RaceService;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Race protocol on /ws/race. Client messages are JSON objects with a type:
+ * join {room?, words?, corpus?}, progress {position}, finish {typedText}, leave.
+ * The server replies joined, finished or error as text frames, and broadcasts
+ * race snapshots as binary frames holding UTF-8 JSON.
+ */
+@Component
+public class RaceSocketHandler extends TextWebSocketHandler {
+
+    private final RaceService raceService;
+    private final ObjectMapper objectMapper;
+
+    public RaceSocketHandler(RaceService raceService, ObjectMapper objectMapper) {
+        this.raceService = raceService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) {
+        AuthenticatedUser user = (AuthenticatedUser) session.getAttributes().get(RaceHandshakeInterceptor.USER_ATTRIBUTE);
+        raceService.open(session, user);
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message) {
+        String sessionId = session.getId();
+        try {
+            JsonNode body = objectMapper.readTree(message.getPayload());
+            switch (body.path("type").asText()) {
+                case "progress" -> raceService.progress(sessionId, body.path("position").asInt());
+                case "join" -> raceService.join(
+                        sessionId,
+                        textOrNull(body, "room"),
+                        body.hasNonNull("words") ? body.get("words").asInt() : null,
+                        textOrNull(body, "corpus"));
+                case "finish" -> raceService.finish(sessionId, body.path("typedText").asText(""));
+                case "leave" -> raceService.leave(sessionId);
+                default -> throw new IllegalArgumentException("Unknown message type");
+            }
+        } catch (JsonProcessingException e) {
+            raceService.sendError(sessionId, "Malformed message");
+        } catch (IllegalArgumentException e) {
+            raceService.sendError(sessionId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+        raceService.close(session.getId());
+    }
+
+    private static String textOrNull(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
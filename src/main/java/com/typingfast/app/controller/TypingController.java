@@ -1,14 +1,29 @@
 package com.typingfast.app.controller;
 
+import com.typingfast.app.config.AuthenticatedUser;
+import com.typingfast.app.dto.KeystrokeStatsResponse;
 import com.typingfast.app.dto.TypingSubmitRequest;
+import com.typingfast.app.entity.KeystrokeData;
 import com.typingfast.app.entity.User;
 import com.typingfast.app.entity.TypingResult;
 import com.typingfast.app.repository.UserRepository;
-import com.typingfast.app.repository.TypingResultRepository;
+import com.typingfast.app.service.Alignment;
+import com.typingfast.app.service.CorpusRegistry;
+import com.typingfast.app.service.GeneratedText;
+import com.typingfast.app.service.KeystrokeService;
+import com.typingfast.app.service.LeaderboardService;
+import com.typingfast.app.service.PercentileService;
 import com.typingfast.app.service.TypingAnalysisService;
+import com.typingfast.app.service.TypingResultService;
+import com.typingfast.app.service.TypingScore;
+import com.typingfast.app.service.TypingSession;
+import com.typingfast.app.service.TypingSessionService;
 import com.typingfast.app.service.TypingTextService;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,70 +35,163 @@ import java.util.*;
 public class TypingController {
 
     private final TypingTextService textService;
+    private final TypingSessionService sessionService;
+    private final CorpusRegistry corpusRegistry;
     private final TypingAnalysisService analysisService;
-    private final TypingResultRepository typingResultRepository;
+    private final TypingResultService typingResultService;
+    private final LeaderboardService leaderboardService;
+    private final PercentileService percentileService;
+    private final KeystrokeService keystrokeService;
     private final UserRepository userRepository;
 
     public TypingController(
             TypingTextService textService,
+            TypingSessionService sessionService,
+            CorpusRegistry corpusRegistry,
             TypingAnalysisService analysisService,
-            TypingResultRepository typingResultRepository,
+            TypingResultService typingResultService,
+            LeaderboardService leaderboardService,
+            PercentileService percentileService,
+            KeystrokeService keystrokeService,
             UserRepository userRepository
     ) {
         this.textService = textService;
+        this.sessionService = sessionService;
+        this.corpusRegistry = corpusRegistry;
         this.analysisService = analysisService;
-        this.typingResultRepository = typingResultRepository;
+        this.typingResultService = typingResultService;
+        this.leaderboardService = leaderboardService;
+        this.percentileService = percentileService;
+        this.keystrokeService = keystrokeService;
         this.userRepository = userRepository;
     }
 
+    /**
+     * Get a practice text and the session id to submit it with;
+     * pass a previous seed back to get the same text again
+     * GET /api/typing/text?words=50&corpus=programming&seed=...
+     */
     @GetMapping("/text")
-    public Map<String, String> getTypingText(
-            @RequestParam(defaultValue = "50") int words
+    public ResponseEntity<?> getTypingText(
+            @RequestParam(defaultValue = "50") int words,
+            @RequestParam(required = false) String corpus,
+            @RequestParam(required = false) Long seed
     ) {
-        String text = textService.generatedText(words);
-        return Map.of("text", text);
+        try {
+            GeneratedText text = seed == null
+                    ? textService.generatedText(words, corpus)
+                    : textService.generatedText(seed, words, corpus);
+            // Seed as a string: JavaScript numbers can't hold every long
+            return ResponseEntity.ok(Map.of(
+                    "text", text.text(),
+                    "seed", String.valueOf(text.seed()),
+                    "corpus", text.corpus(),
+                    "session", sessionService.issue(text)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * List corpus ids with their entry counts
+     * GET /api/typing/corpora
+     */
+    @GetMapping("/corpora")
+    public Map<String, Integer> getCorpora() {
+        return corpusRegistry.describe();
     }
 
+    /**
+     * Score typed text against the text the session was issued for
+     * POST /api/typing/submit
+     */
     @PostMapping("/submit")
-    public Map<String, Object> submitTyping(
+    @Timed(value = "typing.submit", histogram = true)
+    public ResponseEntity<?> submitTyping(
             @Valid @RequestBody TypingSubmitRequest request,
             Authentication authentication
     ) {
-        String original = request.getOriginalText();
+        String original;
         String typed = request.getTypedText();
+        TypingScore score;
+        byte[] keystrokes = null;
+        try {
+            TypingSession session = sessionService.open(request.getSession());
+            sessionService.checkDuration(session, request.getDurationMillis() != null
+                    ? request.getDurationMillis()
+                    : request.getDuration() * 1000L);
+            original = textService.generatedText(session.seed(), session.wordCount(), session.corpus()).text();
+            if (request.getKeystrokes() != null) {
+                keystrokes = keystrokeService.decode(request.getKeystrokes());
+            }
+            score = analysisService.score(original, typed, request.getScoringMode());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
-        int totalTyped = typed.length();
-        int errors = analysisService.calculateErrors(original, typed);
-        int correctedChars = Math.max(totalTyped - errors, 0);
+        int totalTyped = score.totalTyped();
+        int errors = score.errors();
+        int correctedChars = score.correctChars();
 
         double accuracy = analysisService.calculateAccuracy(correctedChars, totalTyped);
-        double wpm = analysisService.calculateWpm(correctedChars, request.getDuration());
+        double wpm = request.getDurationMillis() != null
+                ? analysisService.calculateWpmMillis(correctedChars, request.getDurationMillis())
+                : analysisService.calculateWpm(correctedChars, request.getDuration());
+        if (!analysisService.isPlausibleWpm(wpm)) {
+            return ResponseEntity.badRequest().body("Result is faster than anyone can type");
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("wpm", wpm);
         response.put("accuracy", accuracy);
         response.put("errors", errors);
         response.put("correctedChars", correctedChars);
+        Alignment alignment = score.alignment();
+        if (alignment != null) {
+            response.put("substitutions", alignment.substitutions());
+            response.put("insertions", alignment.insertions());
+            response.put("deletions", alignment.deletions());
+        }
+        // Share of results at this duration that were slower, before counting this one
+        response.put("percentile", percentileService.wpmPercentile(request.getDuration(), wpm));
+
+        KeystrokeData keystrokeData = null;
+        if (keystrokes != null) {
+            KeystrokeStatsResponse stats = keystrokeService.analyze(keystrokes);
+            response.put("keystrokes", stats);
+            keystrokeData = new KeystrokeData(
+                    stats.getKeystrokes(), keystrokes.length, keystrokeService.compress(keystrokes));
+        }
+
+        if(authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            // Reference proxy: the insert only needs the user id
+            User user = userRepository.getReferenceById(principal.getId());
+
+            TypingResult result = TypingResult.builder()
+                    .user(user)
+                    .duration(request.getDuration())
+                    .durationMillis(request.getDurationMillis())
+                    .totalChars(totalTyped)
+                    .correctChars(correctedChars)
+                    .errors(errors)
+                    .wpm(wpm)
+                    .accuracy(accuracy)
+                    .keyStats(analysisService.keyStats(original, score))
+                    .keystrokes(keystrokeData)
+                    .build();
 
-        if(authentication != null && authentication.isAuthenticated()) {
-            String username = authentication.getName();
-            User user = userRepository.findByUsername(username).orElse(null);
-
-            if(user != null) {
-                TypingResult result = TypingResult.builder()
-                        .user(user)
-                        .duration(request.getDuration())
-                        .totalChars(totalTyped)
-                        .correctChars(correctedChars)
-                        .errors(errors)
-                        .wpm(wpm)
-                        .accuracy(accuracy)
-                        .build();
-
-                typingResultRepository.save(result);
+            int duration = request.getDuration();
+            try {
+                typingResultService.record(result, () -> {
+                    leaderboardService.recordResult(principal.getId(), principal.getUsername(), duration, wpm);
+                    percentileService.recordResult(duration, wpm, accuracy);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // A token can outlive its user, and then the insert fails on the foreign key
+                return ResponseEntity.status(401).body("User not found");
             }
         }
 
-        return response;
+        return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,14 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class BigramLatencyResponse {
+    private String bigram;
+    private int count;
+    private double averageMillis;
+}
@@ -0,0 +1,16 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class HeatmapResponse {
+    // Only keys and bigrams the user has typed at least once
+    private List<KeyErrorResponse> keys;
+    private List<KeyErrorResponse> bigrams;
+}
@@ -0,0 +1,18 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class HistorySliceResponse {
+    private List<TypingHistoryResponse> content;
+
+    // Opaque cursor for the next slice; null on the last slice
+    private String nextCursor;
+    private boolean hasNext;
+}
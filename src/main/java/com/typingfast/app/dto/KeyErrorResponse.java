@@ -0,0 +1,16 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class KeyErrorResponse {
+    // A single key, or two characters for a bigram
+    private String key;
+    private int hits;
+    private int errors;
+    private double errorRate;
+}
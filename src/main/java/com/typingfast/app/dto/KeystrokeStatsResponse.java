@@ -0,0 +1,29 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class KeystrokeStatsResponse {
+    private int keystrokes;
+    private int incorrectKeystrokes;
+
+    // Inter-key intervals; the delay before the first key is not counted
+    private int medianLatencyMillis;
+    private int p95LatencyMillis;
+
+    // Pauses of at least the hesitation threshold, and where the longest one happened
+    private int hesitations;
+    private int longestPauseMillis;
+    private int longestPauseAt;
+
+    // Fastest speed over any run of consecutive correct keystrokes
+    private double burstWpm;
+
+    private List<BigramLatencyResponse> slowestBigrams;
+}
@@ -0,0 +1,14 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class LeaderboardEntryResponse {
+    private int rank;
+    private String username;
+    private double bestWpm;
+}
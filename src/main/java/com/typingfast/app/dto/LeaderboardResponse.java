@@ -0,0 +1,21 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class LeaderboardResponse {
+    // Upper bound in seconds of the duration bracket, or null for the overall board
+    private Integer duration;
+    private int totalUsers;
+    private List<LeaderboardEntryResponse> entries;
+
+    // Current user's position; null when anonymous or not on the board
+    private Integer yourRank;
+    private Double yourBestWpm;
+}
@@ -0,0 +1,22 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class PercentileResponse {
+    // Upper bound in seconds of the duration bracket, or null for all results
+    private Integer duration;
+    private long populationSize;
+
+    // Percentiles are the share of results below the user's value; null with no data
+    private Double averageWpm;
+    private Double averageWpmPercentile;
+    private Double bestWpm;
+    private Double bestWpmPercentile;
+    private Double averageAccuracy;
+    private Double averageAccuracyPercentile;
+}
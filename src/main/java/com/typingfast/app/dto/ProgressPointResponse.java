@@ -0,0 +1,27 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+public class ProgressPointResponse {
+    // First day of the bucket (Monday for weeks, the 1st for months)
+    private LocalDate start;
+    private int tests;
+
+    private double averageWpm;
+    private double wpmStdDev;
+    private double bestWpm;
+    private double averageAccuracy;
+    private double accuracyStdDev;
+    private double bestAccuracy;
+
+    // Averages over this bucket and the previous window - 1 buckets with results
+    private double movingAverageWpm;
+    private double movingAverageAccuracy;
+}
@@ -0,0 +1,26 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class ProgressResponse {
+    private String bucket;
+    private LocalDate from;
+    private LocalDate to;
+    private int window;
+    private int totalTests;
+
+    // Only buckets with at least one result, oldest first
+    private List<ProgressPointResponse> points;
+
+    // Least-squares trend of the bucket averages, per day; null with fewer than two buckets
+    private Double wpmSlopePerDay;
+    private Double accuracySlopePerDay;
+}
@@ -0,0 +1,20 @@
+package com.typingfast.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RacePlayerResponse {
+    private String username;
+    // Characters typed so far, as last reported by the client
+    private int position;
+    private double wpm;
+    private boolean finished;
+    // 1-based finishing order, null until finished
+    private Integer place;
+}
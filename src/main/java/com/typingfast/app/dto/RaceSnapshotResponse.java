@@ -0,0 +1,26 @@
+package com.typingfast.app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Room state broadcast to every participant on a tick where something changed.
+ */
+@Getter
+@Setter
+@Builder
+public class RaceSnapshotResponse {
+    private final String type = "race";
+    private String room;
+    // waiting, countdown, running or finished
+    private String state;
+    // Epoch millis the race starts at, 0 while waiting
+    private long startAt;
+    // Server clock, so clients can correct for skew when counting down
+    private long serverTime;
+    private int length;
+    private List<RacePlayerResponse> players;
+}
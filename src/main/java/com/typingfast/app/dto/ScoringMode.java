@@ -0,0 +1,13 @@
+package com.typingfast.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum ScoringMode {
+    // Compare character by character at the same index
+    @JsonProperty("position")
+    POSITION,
+
+    // Align the texts first so one missed character is one error
+    @JsonProperty("alignment")
+    ALIGNMENT
+}
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 public class TypingHistoryResponse {
     private Long id;
     private int duration;
+    private Integer durationMillis;
     private int totalChars;
     private int correctChars;
     private int errors;
@@ -1,7 +1,10 @@
 package com.typingfast.app.dto;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Setter;
 import lombok.Getter;
 
@@ -9,12 +12,29 @@ import lombok.Getter;
 @Setter
 public class TypingSubmitRequest {
 
+    // Session id from /api/typing/text; the server regenerates the text from it
     @NotBlank
-    private String originalText;
+    private String session;
 
+    // Far beyond any generated text; scoring also caps it relative to the original
     @NotBlank
+    @Size(max = 20_000)
     private String typedText;
 
+    // Seconds; no test can outlast a session (typing.session.max-age)
     @NotNull
+    @Positive
+    @Max(3600)
     private Integer duration;
+
+    // Defaults to position scoring for existing clients
+    private ScoringMode scoringMode = ScoringMode.POSITION;
+
+    // Measured test length; when present WPM uses it instead of the whole-second duration
+    @Positive
+    @Max(3_600_000)
+    private Integer durationMillis;
+
+    // Base64 varint stream of (delta ms, code point, correct) events
+    private String keystrokes;
 }
@@ -0,0 +1,33 @@
+package com.typingfast.app.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores a small double[] as a packed binary column (8 bytes per value).
+ */
+@Converter
+public class DoubleArrayConverter implements AttributeConverter<double[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(double[] values) {
+        if (values == null) {
+            return new byte[0];
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+        return buffer.array();
+    }
+
+    @Override
+    public double[] convertToEntityAttribute(byte[] bytes) {
+        if (bytes == null) {
+            return new double[0];
+        }
+        double[] values = new double[bytes.length / Double.BYTES];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(values);
+        return values;
+    }
+}
@@ -0,0 +1,8 @@
+package com.typingfast.app.entity;
+
+/**
+ * A result's keystroke stream as stored: deflate-compressed varints plus the
+ * sizes needed to inflate it.
+ */
+public record KeystrokeData(int eventCount, int rawLength, byte[] compressed) {
+}
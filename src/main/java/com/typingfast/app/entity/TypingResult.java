@@ -29,6 +29,9 @@ public class TypingResult {
     @Column(nullable = false)
     private int duration;
 
+    // Precise test length when the client sent one; older results only have whole seconds
+    private Integer durationMillis;
+
     @Column(nullable = false)
     private int totalChars;
 
@@ -47,6 +50,16 @@ public class TypingResult {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Key and bigram counts from this submit, merged into user_key_stats; not stored per result
+    @Transient
+    @JsonIgnore
+    private int[] keyStats;
+
+    // Optional keystroke stream, written to typing_keystrokes
+    @Transient
+    @JsonIgnore
+    private KeystrokeData keystrokes;
+
     @PrePersist
     public void onCreate() {
         createdAt = LocalDateTime.now();
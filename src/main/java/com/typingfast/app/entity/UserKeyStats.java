@@ -0,0 +1,74 @@
+package com.typingfast.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Arrays;
+
+/**
+ * Per-user hit and error counts for every printable ASCII key and every
+ * pair of letters (or letter and space), as one fixed-size vector.
+ * Layout: key hits, key errors, bigram hits, bigram errors.
+ */
+@Entity
+@Table(name = "user_key_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserKeyStats {
+
+    // Printable ASCII, space through tilde
+    public static final int FIRST_KEY = ' ';
+    public static final int KEYS = '~' - ' ' + 1;
+
+    // Bigrams over a-z plus space, case folded
+    public static final int BIGRAM_SYMBOLS = 27;
+    public static final int BIGRAMS = BIGRAM_SYMBOLS * BIGRAM_SYMBOLS;
+
+    public static final int KEY_HITS = 0;
+    public static final int KEY_ERRORS = KEY_HITS + KEYS;
+    public static final int BIGRAM_HITS = KEY_ERRORS + KEYS;
+    public static final int BIGRAM_ERRORS = BIGRAM_HITS + BIGRAMS;
+    public static final int SIZE = BIGRAM_ERRORS + BIGRAMS;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Convert(converter = IntArrayConverter.class)
+    @Column(nullable = false, length = SIZE * Integer.BYTES)
+    private int[] counts = new int[SIZE];
+
+    /**
+     * Key slot for a code point, or -1 if it isn't printable ASCII
+     */
+    public static int keyIndex(int codePoint) {
+        return codePoint >= FIRST_KEY && codePoint < FIRST_KEY + KEYS ? codePoint - FIRST_KEY : -1;
+    }
+
+    /**
+     * Bigram symbol for a code point: 0 for space, 1-26 for letters, -1 otherwise
+     */
+    public static int bigramSymbol(int codePoint) {
+        if (codePoint == ' ') {
+            return 0;
+        }
+        int lower = codePoint | 0x20;
+        return lower >= 'a' && lower <= 'z' ? lower - 'a' + 1 : -1;
+    }
+
+    public static char bigramChar(int symbol) {
+        return symbol == 0 ? ' ' : (char) ('a' + symbol - 1);
+    }
+
+    public void merge(int[] delta) {
+        // Rows written before a layout change are shorter; grow them in place
+        if (counts.length < SIZE) {
+            counts = Arrays.copyOf(counts, SIZE);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            counts[i] += delta[i];
+        }
+    }
+}
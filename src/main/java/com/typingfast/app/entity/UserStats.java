@@ -0,0 +1,108 @@
+package com.typingfast.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Arrays;
+
+/**
+ * Per-user running aggregate of all typing results.
+ * Updated in the same transaction as each result insert so the dashboard
+ * can read a single row instead of aggregating typing_results.
+ */
+@Entity
+@Table(name = "user_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStats {
+
+    // Size of the rolling "recent tests" window
+    public static final int RECENT_WINDOW = 10;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int totalTests;
+
+    @Column(nullable = false)
+    private double sumWpm;
+
+    @Column(nullable = false)
+    private double sumAccuracy;
+
+    @Column(nullable = false)
+    private double bestWpm;
+
+    @Column(nullable = false)
+    private double bestAccuracy;
+
+    @Column(nullable = false)
+    private int totalDuration;
+
+    @Column(nullable = false)
+    private int totalChars;
+
+    @Column(nullable = false)
+    private int totalErrors;
+
+    // Last N results, oldest first
+    @Convert(converter = DoubleArrayConverter.class)
+    @Column(nullable = false, length = RECENT_WINDOW * Double.BYTES)
+    @Builder.Default
+    private double[] recentWpm = new double[0];
+
+    @Convert(converter = DoubleArrayConverter.class)
+    @Column(nullable = false, length = RECENT_WINDOW * Double.BYTES)
+    @Builder.Default
+    private double[] recentAccuracy = new double[0];
+
+    public static UserStats empty(Long userId) {
+        return UserStats.builder().userId(userId).build();
+    }
+
+    /**
+     * Fold a newly saved result into the aggregate
+     */
+    public void apply(TypingResult result) {
+        totalTests++;
+        sumWpm += result.getWpm();
+        sumAccuracy += result.getAccuracy();
+        bestWpm = Math.max(bestWpm, result.getWpm());
+        bestAccuracy = Math.max(bestAccuracy, result.getAccuracy());
+        totalDuration += result.getDuration();
+        totalChars += result.getTotalChars();
+        totalErrors += result.getErrors();
+        recentWpm = push(recentWpm, result.getWpm());
+        recentAccuracy = push(recentAccuracy, result.getAccuracy());
+    }
+
+    public double averageWpm() {
+        return totalTests == 0 ? 0.0 : sumWpm / totalTests;
+    }
+
+    public double averageAccuracy() {
+        return totalTests == 0 ? 0.0 : sumAccuracy / totalTests;
+    }
+
+    public double recentAverageWpm() {
+        return Arrays.stream(recentWpm).average().orElse(0.0);
+    }
+
+    public double recentAverageAccuracy() {
+        return Arrays.stream(recentAccuracy).average().orElse(0.0);
+    }
+
+    // Append to the window, dropping the oldest value once it is full
+    private static double[] push(double[] window, double value) {
+        int keep = Math.min(window.length, RECENT_WINDOW - 1);
+        double[] next = new double[keep + 1];
+        System.arraycopy(window, window.length - keep, next, 0, keep);
+        next[keep] = value;
+        return next;
+    }
+}
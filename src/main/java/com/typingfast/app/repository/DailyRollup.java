@@ -0,0 +1,36 @@
+package com.typingfast.app.repository;
+
+import java.time.LocalDate;
+
+/**
+ * One user's totals for one day, as stored in daily_user_rollup.
+ * Sums of squares let merged days report a standard deviation.
+ */
+public record DailyRollup(
+        long userId,
+        LocalDate day,
+        int tests,
+        double sumWpm,
+        double sumSqWpm,
+        double maxWpm,
+        double sumAccuracy,
+        double sumSqAccuracy,
+        double maxAccuracy) {
+
+    public static DailyRollup of(long userId, LocalDate day, double wpm, double accuracy) {
+        return new DailyRollup(userId, day, 1, wpm, wpm * wpm, wpm, accuracy, accuracy * accuracy, accuracy);
+    }
+
+    public DailyRollup plus(DailyRollup other) {
+        return new DailyRollup(
+                userId,
+                day,
+                tests + other.tests,
+                sumWpm + other.sumWpm,
+                sumSqWpm + other.sumSqWpm,
+                Math.max(maxWpm, other.maxWpm),
+                sumAccuracy + other.sumAccuracy,
+                sumSqAccuracy + other.sumSqAccuracy,
+                Math.max(maxAccuracy, other.maxAccuracy));
+    }
+}
@@ -0,0 +1,94 @@
+package com.typingfast.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upserts and streams the per-user daily totals in daily_user_rollup.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class DailyRollupRepository {
+
+    // Merge into the existing row in place so concurrent submits never lose an update
+    private static final String UPSERT_SQL =
+            "INSERT INTO daily_user_rollup " +
+            "(user_id, rollup_day, tests, sum_wpm, sum_sq_wpm, max_wpm, sum_accuracy, sum_sq_accuracy, max_accuracy) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "tests = tests + VALUES(tests), " +
+            "sum_wpm = sum_wpm + VALUES(sum_wpm), " +
+            "sum_sq_wpm = sum_sq_wpm + VALUES(sum_sq_wpm), " +
+            "max_wpm = GREATEST(max_wpm, VALUES(max_wpm)), " +
+            "sum_accuracy = sum_accuracy + VALUES(sum_accuracy), " +
+            "sum_sq_accuracy = sum_sq_accuracy + VALUES(sum_sq_accuracy), " +
+            "max_accuracy = GREATEST(max_accuracy, VALUES(max_accuracy))";
+
+    private static final String RANGE_SQL =
+            "SELECT rollup_day, tests, sum_wpm, sum_sq_wpm, max_wpm, sum_accuracy, sum_sq_accuracy, max_accuracy " +
+            "FROM daily_user_rollup WHERE user_id = ? AND rollup_day BETWEEN ? AND ? ORDER BY rollup_day";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add per-(user, day) deltas in one batch. Callers pass them sorted by
+     * user and day so concurrent batches lock rows in the same order.
+     */
+    public void upsertAll(List<DailyRollup> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (DailyRollup delta : deltas) {
+            rows.add(new Object[]{
+                    delta.userId(),
+                    Date.valueOf(delta.day()),
+                    delta.tests(),
+                    delta.sumWpm(),
+                    delta.sumSqWpm(),
+                    delta.maxWpm(),
+                    delta.sumAccuracy(),
+                    delta.sumSqAccuracy(),
+                    delta.maxAccuracy()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    @FunctionalInterface
+    public interface DailyRollupHandler {
+        void accept(DailyRollup rollup);
+    }
+
+    // One row per day with results in [from, to], oldest first, streamed rather than collected
+    public void forEachDay(long userId, LocalDate from, LocalDate to, DailyRollupHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+            statement.setLong(1, userId);
+            statement.setDate(2, Date.valueOf(from));
+            statement.setDate(3, Date.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(new DailyRollup(
+                userId,
+                rs.getDate("rollup_day").toLocalDate(),
+                rs.getInt("tests"),
+                rs.getDouble("sum_wpm"),
+                rs.getDouble("sum_sq_wpm"),
+                rs.getDouble("max_wpm"),
+                rs.getDouble("sum_accuracy"),
+                rs.getDouble("sum_sq_accuracy"),
+                rs.getDouble("max_accuracy"))));
+    }
+}
@@ -0,0 +1,60 @@
+package com.typingfast.app.repository;
+
+import com.typingfast.app.entity.KeystrokeData;
+import com.typingfast.app.entity.TypingResult;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keystroke streams live in their own table so typing_results rows stay small.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class KeystrokeRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO typing_keystrokes (result_id, event_count, raw_length, data) VALUES (?, ?, ?, ?)";
+
+    private static final String FIND_SQL =
+            "SELECT k.event_count, k.raw_length, k.data FROM typing_keystrokes k " +
+            "JOIN typing_results t ON t.id = k.result_id WHERE k.result_id = ? AND t.user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public KeystrokeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Store the streams of results that carry one; the results must already have ids
+     */
+    public void insertAll(List<TypingResult> results) {
+        List<TypingResult> withKeystrokes = results.stream()
+                .filter(result -> result.getKeystrokes() != null)
+                .toList();
+        if (withKeystrokes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, withKeystrokes, withKeystrokes.size(), (ps, result) -> {
+            KeystrokeData data = result.getKeystrokes();
+            ps.setLong(1, result.getId());
+            ps.setInt(2, data.eventCount());
+            ps.setInt(3, data.rawLength());
+            ps.setBytes(4, data.compressed());
+        });
+    }
+
+    // Scoped to the owner so one user cannot read another's keystrokes
+    public Optional<KeystrokeData> findByResult(Long userId, Long resultId) {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new KeystrokeData(
+                        rs.getInt("event_count"),
+                        rs.getInt("raw_length"),
+                        rs.getBytes("data")), resultId, userId)
+                .stream()
+                .findFirst();
+    }
+}
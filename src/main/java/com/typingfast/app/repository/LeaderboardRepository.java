@@ -0,0 +1,48 @@
+package com.typingfast.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streams personal bests out of typing_results to warm the in-memory leaderboards.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class LeaderboardRepository {
+
+    private static final String PERSONAL_BESTS_SQL =
+            "SELECT t.user_id, u.username, t.duration, MAX(t.wpm) AS best_wpm " +
+            "FROM typing_results t JOIN users u ON u.id = t.user_id " +
+            "GROUP BY t.user_id, u.username, t.duration";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LeaderboardRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @FunctionalInterface
+    public interface PersonalBestHandler {
+        void accept(long userId, String username, int duration, double bestWpm);
+    }
+
+    // One row per (user, duration) pair, streamed rather than collected
+    public void forEachPersonalBest(PersonalBestHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    PERSONAL_BESTS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(
+                rs.getLong("user_id"),
+                rs.getString("username"),
+                rs.getInt("duration"),
+                rs.getDouble("best_wpm")));
+    }
+}
@@ -0,0 +1,16 @@
+package com.typingfast.app.repository;
+
+/**
+ * Projection of the per-user totals computed from typing_results
+ */
+public interface ResultAggregate {
+    Long getUserId();
+    long getTotalTests();
+    double getSumWpm();
+    double getSumAccuracy();
+    double getBestWpm();
+    double getBestAccuracy();
+    long getTotalDuration();
+    long getTotalChars();
+    long getTotalErrors();
+}
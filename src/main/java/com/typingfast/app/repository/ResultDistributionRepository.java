@@ -0,0 +1,43 @@
+package com.typingfast.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Bucketed counts of typing_results, used to rebuild the percentile histograms.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class ResultDistributionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResultDistributionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @FunctionalInterface
+    public interface BucketHandler {
+        void accept(int duration, int bucket, long count);
+    }
+
+    /**
+     * Result counts grouped by duration and FLOOR(column * scale)
+     *
+     * @param column "wpm" or "accuracy"
+     * @param scale  buckets per unit
+     */
+    public void forEachBucket(String column, int scale, BucketHandler handler) {
+        if (!"wpm".equals(column) && !"accuracy".equals(column)) {
+            throw new IllegalArgumentException("Unsupported column: " + column);
+        }
+        String sql = "SELECT duration, FLOOR(" + column + " * " + scale + ") AS bucket, COUNT(*) AS results " +
+                "FROM typing_results GROUP BY duration, bucket";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.accept(
+                rs.getInt("duration"),
+                rs.getInt("bucket"),
+                rs.getLong("results")));
+    }
+}
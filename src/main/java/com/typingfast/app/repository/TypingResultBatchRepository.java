@@ -0,0 +1,70 @@
+package com.typingfast.app.repository;
+
+import com.typingfast.app.entity.TypingResult;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Plain JDBC batch insert for typing results.
+ * Hibernate cannot batch inserts for IDENTITY ids, but a JDBC batch can, and
+ * with rewriteBatchedStatements=true MySQL receives one multi-row INSERT
+ * while AUTO_INCREMENT still assigns the ids, which are read back so that
+ * rows keyed by result id can be written in the same transaction.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class TypingResultBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO typing_results " +
+            "(user_id, duration, duration_millis, total_chars, correct_chars, errors, wpm, accuracy, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TypingResultBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the batch and set the generated ids back on the results
+     */
+    public void insertAll(List<TypingResult> results) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (TypingResult result : results) {
+                    ps.setLong(1, result.getUser().getId());
+                    ps.setInt(2, result.getDuration());
+                    ps.setObject(3, result.getDurationMillis(), Types.INTEGER);
+                    ps.setInt(4, result.getTotalChars());
+                    ps.setInt(5, result.getCorrectChars());
+                    ps.setInt(6, result.getErrors());
+                    ps.setDouble(7, result.getWpm());
+                    ps.setDouble(8, result.getAccuracy());
+                    ps.setTimestamp(9, Timestamp.valueOf(result.getCreatedAt()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (TypingResult result : results) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated key for batch insert");
+                        }
+                        result.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
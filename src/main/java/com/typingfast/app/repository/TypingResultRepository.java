@@ -4,50 +4,53 @@ import com.typingfast.app.entity.TypingResult;
 import com.typingfast.app.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 public interface TypingResultRepository extends JpaRepository<TypingResult, Long> {
 
-    // Get all results for a user, ordered by date (newest first)
-    List<TypingResult> findByUserOrderByCreatedAtDesc(User user);
-
     // Paginated results for history
     Page<TypingResult> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
 
-    // Count total tests by user
-    int countByUser(User user);
-
-    // Get best WPM for a user
-    @Query("SELECT MAX(t.wpm) FROM TypingResult t WHERE t.user = :user")
-    Optional<Double> findBestWpmByUser(@Param("user") User user);
-
-    // Get best accuracy for a user
-    @Query("SELECT MAX(t.accuracy) FROM TypingResult t WHERE t.user = :user")
-    Optional<Double> findBestAccuracyByUser(@Param("user") User user);
-
-    // Get average WPM for a user
-    @Query("SELECT AVG(t.wpm) FROM TypingResult t WHERE t.user = :user")
-    Optional<Double> findAverageWpmByUser(@Param("user") User user);
-
-    // Get average accuracy for a user
-    @Query("SELECT AVG(t.accuracy) FROM TypingResult t WHERE t.user = :user")
-    Optional<Double> findAverageAccuracyByUser(@Param("user") User user);
-
-    // Get total time practiced (sum of durations)
-    @Query("SELECT COALESCE(SUM(t.duration), 0) FROM TypingResult t WHERE t.user = :user")
-    int findTotalDurationByUser(@Param("user") User user);
-
-    // Get total characters typed
-    @Query("SELECT COALESCE(SUM(t.totalChars), 0) FROM TypingResult t WHERE t.user = :user")
-    int findTotalCharsByUser(@Param("user") User user);
-
-    // Get total errors
-    @Query("SELECT COALESCE(SUM(t.errors), 0) FROM TypingResult t WHERE t.user = :user")
-    int findTotalErrorsByUser(@Param("user") User user);
+    // First slice of history for keyset pagination (no count query)
+    Slice<TypingResult> findByUserOrderByCreatedAtDescIdDesc(User user, Pageable pageable);
+
+    // Slice of history strictly after the (createdAt, id) cursor; the row comparison is an index range seek
+    @Query("SELECT t FROM TypingResult t WHERE t.user = :user " +
+            "AND (t.createdAt, t.id) < (:createdAt, :id) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<TypingResult> findByUserAfterCursor(
+            @Param("user") User user,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    // Totals for one user, used to (re)build the user_stats aggregate
+    @Query("SELECT u.Id AS userId, COUNT(t) AS totalTests, " +
+            "SUM(t.wpm) AS sumWpm, SUM(t.accuracy) AS sumAccuracy, " +
+            "MAX(t.wpm) AS bestWpm, MAX(t.accuracy) AS bestAccuracy, " +
+            "SUM(t.duration) AS totalDuration, SUM(t.totalChars) AS totalChars, " +
+            "SUM(t.errors) AS totalErrors " +
+            "FROM TypingResult t JOIN t.user u WHERE u = :user GROUP BY u.Id")
+    Optional<ResultAggregate> aggregateByUser(@Param("user") User user);
+
+    // Totals for one user's results with above < duration <= upTo, i.e. one duration bracket
+    @Query("SELECT u.Id AS userId, COUNT(t) AS totalTests, " +
+            "SUM(t.wpm) AS sumWpm, SUM(t.accuracy) AS sumAccuracy, " +
+            "MAX(t.wpm) AS bestWpm, MAX(t.accuracy) AS bestAccuracy, " +
+            "SUM(t.duration) AS totalDuration, SUM(t.totalChars) AS totalChars, " +
+            "SUM(t.errors) AS totalErrors " +
+            "FROM TypingResult t JOIN t.user u " +
+            "WHERE u = :user AND t.duration > :above AND t.duration <= :upTo GROUP BY u.Id")
+    Optional<ResultAggregate> aggregateByUserAndDuration(
+            @Param("user") User user,
+            @Param("above") int above,
+            @Param("upTo") int upTo);
 
     // Get recent N tests for trend analysis
     List<TypingResult> findTop10ByUserOrderByCreatedAtDesc(User user);
@@ -0,0 +1,41 @@
+package com.typingfast.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streams every username and email to build the signup availability filters.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class UserDirectoryRepository {
+
+    private static final String USERS_SQL = "SELECT username, email FROM users";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserDirectoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @FunctionalInterface
+    public interface UserHandler {
+        void accept(String username, String email);
+    }
+
+    // One row per user, streamed rather than collected
+    public void forEachUser(UserHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    USERS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getString("username"), rs.getString("email")));
+    }
+}
@@ -0,0 +1,24 @@
+package com.typingfast.app.repository;
+
+import com.typingfast.app.entity.UserKeyStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserKeyStatsRepository extends JpaRepository<UserKeyStats, Long> {
+
+    // Creates the row on a user's first submit; concurrent first submits wait on each other instead of failing
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_key_stats (user_id, counts) VALUES (:userId, :counts)", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("counts") byte[] counts);
+
+    // Lock the row so concurrent submits for the same user serialize their updates
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserKeyStats s WHERE s.userId = :userId")
+    Optional<UserKeyStats> findByIdForUpdate(@Param("userId") Long userId);
+}
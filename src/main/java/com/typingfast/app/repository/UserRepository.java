@@ -1,11 +1,29 @@
 package com.typingfast.app.repository;
 
 import com.typingfast.app.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+    boolean existsByUsername(String username);
+    boolean existsByEmail(String email);
+
+    // A page of user ids after the given one, for walking every user in id order
+    @Query("SELECT u.Id FROM User u WHERE u.Id > :after ORDER BY u.Id")
+    List<Long> findIdsAfter(@Param("after") long after, Pageable page);
+
+    // Replace a hash without loading the user again
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.Id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,26 @@
+package com.typingfast.app.repository;
+
+import com.typingfast.app.entity.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Creates an empty row on a user's first submit; concurrent first submits wait on each other instead of failing
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_stats (user_id, best_accuracy, best_wpm, sum_accuracy, sum_wpm, " +
+            "total_chars, total_duration, total_errors, total_tests, recent_accuracy, recent_wpm) " +
+            "VALUES (:userId, 0, 0, 0, 0, 0, 0, 0, 0, :empty, :empty)", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("empty") byte[] empty);
+
+    // Lock the row so concurrent submits for the same user serialize their updates
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.userId = :userId")
+    Optional<UserStats> findByIdForUpdate(@Param("userId") Long userId);
+}
@@ -0,0 +1,13 @@
+package com.typingfast.app.service;
+
+/**
+ * Edit operations that turn the original text into what was typed.
+ * Deletions are original characters that were skipped, insertions are
+ * extra typed characters; the untyped tail of the original is not counted.
+ */
+public record Alignment(int matches, int substitutions, int insertions, int deletions) {
+
+    public int errors() {
+        return substitutions + insertions + deletions;
+    }
+}
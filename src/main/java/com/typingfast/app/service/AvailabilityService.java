@@ -0,0 +1,141 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.repository.UserDirectoryRepository;
+import com.typingfast.app.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Answers signup availability checks for usernames and emails.
+ * In-memory Bloom filters, loaded from users at startup and updated on signup,
+ * settle most checks: a miss means the value is definitely free. Only possible
+ * hits reach the unique index. Signups on other instances are not in this
+ * filter, so a stale "free" only means signup itself reports the duplicate.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserDirectoryRepository userDirectoryRepository;
+    private final UserRepository userRepository;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    // Until the filters are loaded every check goes to the database
+    private volatile boolean loaded;
+
+    private final Counter usernameFree;
+    private final Counter usernameLookupFree;
+    private final Counter usernameLookupTaken;
+    private final Counter emailFree;
+    private final Counter emailLookupFree;
+    private final Counter emailLookupTaken;
+
+    public AvailabilityService(
+            UserDirectoryRepository userDirectoryRepository,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${auth.availability.expected-users:1000000}") long expectedUsers,
+            @Value("${auth.availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userDirectoryRepository = userDirectoryRepository;
+        this.userRepository = userRepository;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+
+        Gauge.builder("auth.availability.false_positive_rate", usernames, BloomFilter::expectedFalsePositiveRate)
+                .description("Expected false-positive rate of the availability filter at its current fill")
+                .tag("field", "username")
+                .register(meterRegistry);
+        Gauge.builder("auth.availability.false_positive_rate", emails, BloomFilter::expectedFalsePositiveRate)
+                .description("Expected false-positive rate of the availability filter at its current fill")
+                .tag("field", "email")
+                .register(meterRegistry);
+        Gauge.builder("auth.availability.false_positive_rate.target", () -> falsePositiveRate)
+                .description("Configured false-positive rate at the expected user count")
+                .register(meterRegistry);
+        this.usernameFree = checkCounter(meterRegistry, "username", "filter_free");
+        this.usernameLookupFree = checkCounter(meterRegistry, "username", "lookup_free");
+        this.usernameLookupTaken = checkCounter(meterRegistry, "username", "lookup_taken");
+        this.emailFree = checkCounter(meterRegistry, "email", "filter_free");
+        this.emailLookupFree = checkCounter(meterRegistry, "email", "lookup_free");
+        this.emailLookupTaken = checkCounter(meterRegistry, "email", "lookup_taken");
+    }
+
+    // lookup_free / (lookup_free + lookup_taken) is the observed false-positive rate
+    private static Counter checkCounter(MeterRegistry meterRegistry, String field, String result) {
+        return Counter.builder("auth.availability.checks")
+                .description("Availability checks by how they were answered")
+                .tag("field", field)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        // Signups during the scan are added directly, so none are missed
+        userDirectoryRepository.forEachUser(this::register);
+        loaded = true;
+        log.info("Loaded availability filters with {} users ({} bits, {} hashes) in {} ms",
+                usernames.entries(), usernames.bitSize(), usernames.hashCount(),
+                System.currentTimeMillis() - start);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (loaded && !usernames.mightContain(fold(username))) {
+            usernameFree.increment();
+            return true;
+        }
+        return lookup(username, userRepository::existsByUsername, usernameLookupFree, usernameLookupTaken);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (loaded && !emails.mightContain(fold(email))) {
+            emailFree.increment();
+            return true;
+        }
+        return lookup(email, userRepository::existsByEmail, emailLookupFree, emailLookupTaken);
+    }
+
+    /**
+     * Mark a username and email as taken; either may be null
+     */
+    public void register(String username, String email) {
+        if (username != null) {
+            usernames.put(fold(username));
+        }
+        if (email != null) {
+            emails.put(fold(email));
+        }
+    }
+
+    private static boolean lookup(String value, Predicate<String> exists, Counter free, Counter taken) {
+        if (exists.test(value)) {
+            taken.increment();
+            return false;
+        }
+        free.increment();
+        return true;
+    }
+
+    // MySQL's default collation ignores case and accents, so "José" and "jose"
+    // collide there; fold both to one key so the filter never misses a collision
+    static String fold(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFKD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
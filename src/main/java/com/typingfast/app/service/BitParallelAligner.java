@@ -0,0 +1,325 @@
+package com.typingfast.app.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Levenshtein alignment of typed text against the original, using Myers'
+ * bit-vector algorithm in Hyyrö's multi-block form: the original is split
+ * into 64-row blocks and each typed character advances all blocks with a
+ * handful of word operations, so a full pass is O(n * m / 64).
+ *
+ * Only blocks near the diagonal are computed, in a band that starts at 128
+ * and doubles until it holds the distance, so a mostly correct submission
+ * costs O(n * band / 64). The band's horizontal and vertical delta vectors are
+ * kept for the traceback that splits the distance into substitutions,
+ * insertions and deletions. Working arrays are reused per thread up to a
+ * size limit, so texts of typical length align without allocating.
+ *
+ * ASCII input is compared char by char; anything else by code point.
+ */
+final class BitParallelAligner {
+
+    private static final int ASCII = 128;
+    private static final int INITIAL_BAND = 128;
+
+    // Delta words kept per thread: 16K block-columns is 512 KB over the four arrays
+    private static final int RETAINED_CELLS = 1 << 14;
+    private static final int RETAINED_SYMBOLS = 1 << 12;
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private BitParallelAligner() {
+    }
+
+    static Alignment align(String original, String typed) {
+        return align(original, typed, null);
+    }
+
+    /**
+     * @param errors if not null, receives the code point positions in the
+     *               original that were substituted or skipped
+     */
+    static Alignment align(String original, String typed, BitSet errors) {
+        Workspace w = WORKSPACE.get();
+        try {
+            if (isAscii(original) && isAscii(typed)) {
+                int m = original.length();
+                int n = typed.length();
+                int[] a = w.original = grow(w.original, m);
+                int[] b = w.typed = grow(w.typed, n);
+                for (int i = 0; i < m; i++) {
+                    a[i] = original.charAt(i);
+                }
+                for (int j = 0; j < n; j++) {
+                    b[j] = typed.charAt(j);
+                }
+                return align(w, a, m, b, n, ASCII, errors);
+            }
+
+            // Dense symbol ids for the original's code points; code points that
+            // only appear in the typed text map to 0, which matches nothing
+            Map<Integer, Integer> ids = new HashMap<>();
+            int[] a = original.codePoints().map(cp -> ids.computeIfAbsent(cp, k -> ids.size() + 1)).toArray();
+            int[] b = typed.codePoints().map(cp -> ids.getOrDefault(cp, 0)).toArray();
+            return align(w, a, a.length, b, b.length, ids.size() + 1, errors);
+        } finally {
+            w.trim();
+        }
+    }
+
+    private static Alignment align(Workspace w, int[] a, int m, int[] b, int n, int alphabet, BitSet errors) {
+        if (n == 0) {
+            return new Alignment(0, 0, 0, 0);
+        }
+        if (m == 0) {
+            return new Alignment(0, 0, n, 0);
+        }
+
+        int blocks = (m + 63) >>> 6;
+        long[] peq = w.peq = grow(w.peq, alphabet * blocks);
+        Arrays.fill(peq, 0, alphabet * blocks, 0L);
+        for (int i = 0; i < m; i++) {
+            peq[a[i] * blocks + (i >>> 6)] |= 1L << (i & 63);
+        }
+        // Padding rows below the original match everything so they never push deltas upward
+        if ((m & 63) != 0) {
+            long padding = -1L << (m & 63);
+            for (int s = 0; s < alphabet; s++) {
+                peq[s * blocks + blocks - 1] |= padding;
+            }
+        }
+
+        // Widen the band until the distance fits inside it; a band as wide as
+        // the texts is the full matrix and always succeeds
+        int limit = Math.max(m, n);
+        for (int band = INITIAL_BAND; ; band *= 2) {
+            Alignment alignment = alignWithin(w, a, m, b, n, blocks, Math.min(band, limit), band >= limit, errors);
+            if (alignment != null) {
+                return alignment;
+            }
+        }
+    }
+
+    /**
+     * Align within the diagonal band |i - j| <= band, or return null if the
+     * distance may exceed it. Cells outside the band have D >= |i - j| > band,
+     * so blocks lying wholly outside are skipped: blocks above start from an
+     * assumed +1 horizontal delta and blocks entering below from +1 vertical
+     * deltas. Both only overestimate D, which leaves every cell with D <= band
+     * exact.
+     */
+    private static Alignment alignWithin(
+            Workspace w, int[] a, int m, int[] b, int n, int blocks, int band, boolean full, BitSet errors) {
+        long[] peq = w.peq;
+        long[] pv = w.pv = grow(w.pv, blocks);
+        long[] mv = w.mv = grow(w.mv, blocks);
+        int[] score = w.score = grow(w.score, blocks);
+        int[] first = w.first = grow(w.first, n);
+        int[] last = w.last = grow(w.last, n);
+        int[] start = w.start = grow(w.start, n);
+
+        int width = Math.min(blocks, (2 * band) / 64 + 2);
+        long[] vp = w.vp = grow(w.vp, n * width);
+        long[] vn = w.vn = grow(w.vn, n * width);
+        long[] hp = w.hp = grow(w.hp, n * width);
+        long[] hn = w.hn = grow(w.hn, n * width);
+
+        int active = -1;
+        int cell = 0;
+        for (int j = 1; j <= n; j++) {
+            int firstBlock = Math.max(0, (j - band - 1) >> 6);
+            int lastBlock = Math.min(blocks - 1, (j + band - 1) >> 6);
+            while (active < lastBlock) {
+                active++;
+                pv[active] = -1L;
+                mv[active] = 0L;
+                score[active] = (active == 0 ? 0 : score[active - 1]) + 64;
+            }
+            first[j - 1] = firstBlock;
+            last[j - 1] = lastBlock;
+            start[j - 1] = cell;
+
+            int symbol = b[j - 1] * blocks;
+            // D[0][j] - D[0][j - 1] is always +1
+            int hin = 1;
+            for (int block = firstBlock; block <= lastBlock; block++, cell++) {
+                long eq = peq[symbol + block];
+                long p = pv[block];
+                long q = mv[block];
+
+                long xv = eq | q;
+                if (hin < 0) {
+                    eq |= 1L;
+                }
+                long xh = (((eq & p) + p) ^ p) | eq;
+                long ph = q | ~(xh | p);
+                long mh = p & xh;
+                hp[cell] = ph;
+                hn[cell] = mh;
+
+                int hout = ph < 0 ? 1 : (mh < 0 ? -1 : 0);
+                ph <<= 1;
+                mh <<= 1;
+                if (hin < 0) {
+                    mh |= 1L;
+                } else if (hin > 0) {
+                    ph |= 1L;
+                }
+                p = mh | ~(xv | ph);
+                q = ph & xv;
+
+                pv[block] = p;
+                mv[block] = q;
+                vp[cell] = p;
+                vn[cell] = q;
+                score[block] += hout;
+                hin = hout;
+            }
+        }
+
+        // The typed text may stop anywhere in the original: end the alignment
+        // on the cheapest row of the last column, preferring the furthest one
+        int best = n;
+        int i = 0;
+        for (int block = first[n - 1], column = start[n - 1]; block <= last[n - 1]; block++, column++) {
+            int d = score[block] - Long.bitCount(vp[column]) + Long.bitCount(vn[column]);
+            for (int row = block * 64 + 1, end = Math.min(block * 64 + 64, m); row <= end; row++) {
+                int bit = (row - 1) & 63;
+                d += (int) ((vp[column] >>> bit) & 1L) - (int) ((vn[column] >>> bit) & 1L);
+                if (d <= best) {
+                    best = d;
+                    i = row;
+                }
+            }
+        }
+        if (best > band && !full) {
+            return null;
+        }
+
+        int j = n;
+        int d = best;
+        int matches = 0;
+        int substitutions = 0;
+        int insertions = 0;
+        int deletions = 0;
+        while (i > 0 && j > 0) {
+            // Equal characters always continue an optimal path diagonally
+            if (a[i - 1] == b[j - 1]) {
+                matches++;
+                i--;
+                j--;
+                continue;
+            }
+
+            int here = cell(w, i, j);
+            int left;
+            int diagonal;
+            if (j == 1) {
+                left = i;
+                diagonal = i - 1;
+            } else {
+                left = d - delta(hp, hn, here, i);
+                int previous = i == 1 ? -1 : cell(w, i, j - 1);
+                diagonal = i == 1 ? j - 1 : previous < 0 ? Integer.MAX_VALUE : left - delta(vp, vn, previous, i);
+            }
+
+            if (diagonal == d - 1) {
+                substitutions++;
+                if (errors != null) {
+                    errors.set(i - 1);
+                }
+                i--;
+                j--;
+                d = diagonal;
+            } else if (delta(vp, vn, here, i) == 1) {
+                deletions++;
+                if (errors != null) {
+                    errors.set(i - 1);
+                }
+                i--;
+                d--;
+            } else {
+                insertions++;
+                j--;
+                d = left;
+            }
+        }
+        if (errors != null) {
+            errors.set(0, i);
+        }
+        return new Alignment(matches, substitutions, insertions + j, deletions + i);
+    }
+
+    // Index of the delta words holding row i of column j (both 1-based), or -1 outside the band
+    private static int cell(Workspace w, int i, int j) {
+        int block = (i - 1) >>> 6;
+        if (block < w.first[j - 1] || block > w.last[j - 1]) {
+            return -1;
+        }
+        return w.start[j - 1] + block - w.first[j - 1];
+    }
+
+    // D at row i minus its neighbour above (vertical words) or to the left (horizontal words)
+    private static int delta(long[] positive, long[] negative, int cell, int i) {
+        int bit = (i - 1) & 63;
+        return (int) ((positive[cell] >>> bit) & 1L) - (int) ((negative[cell] >>> bit) & 1L);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= ASCII) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] grow(int[] array, int size) {
+        return array.length >= size ? array : new int[Math.max(size, array.length * 2)];
+    }
+
+    private static long[] grow(long[] array, int size) {
+        return array.length >= size ? array : new long[Math.max(size, array.length * 2)];
+    }
+
+    private static final class Workspace {
+        int[] original = new int[256];
+        int[] typed = new int[256];
+        long[] peq = new long[ASCII * 4];
+        long[] pv = new long[4];
+        long[] mv = new long[4];
+        int[] score = new int[4];
+        int[] first = new int[256];
+        int[] last = new int[256];
+        int[] start = new int[256];
+        long[] vp = new long[1024];
+        long[] vn = new long[1024];
+        long[] hp = new long[1024];
+        long[] hn = new long[1024];
+
+        // Drop arrays grown by an unusually long text rather than pin them to the thread
+        void trim() {
+            if (vp.length > RETAINED_CELLS) {
+                vp = new long[1024];
+                vn = new long[1024];
+                hp = new long[1024];
+                hn = new long[1024];
+            }
+            if (original.length > RETAINED_SYMBOLS || typed.length > RETAINED_SYMBOLS) {
+                original = new int[256];
+                typed = new int[256];
+            }
+            if (first.length > RETAINED_SYMBOLS) {
+                first = new int[256];
+                last = new int[256];
+                start = new int[256];
+            }
+            if (peq.length > RETAINED_CELLS) {
+                peq = new long[ASCII * 4];
+            }
+        }
+    }
+}
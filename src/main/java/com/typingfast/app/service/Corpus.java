@@ -0,0 +1,109 @@
+package com.typingfast.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only word or quote corpus in the packed binary format written by
+ * {@link CorpusPacker}. All reads are absolute gets on the underlying buffer,
+ * usually a memory mapping, so entries never live on the heap and one
+ * instance is safe to share between threads.
+ *
+ * Layout, big-endian:
+ * <pre>
+ * int magic "TFC1", int version, int entryCount, int reserved
+ * int[entryCount + 1]  entry offsets into the blob, the last one is the blob length
+ * float[entryCount]    alias method acceptance probabilities
+ * int[entryCount]      alias method fallback entries
+ * byte[]               UTF-8 blob
+ * </pre>
+ */
+final class Corpus {
+
+    static final int MAGIC = 0x54464331;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private final String id;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int offsetsBase;
+    private final int probabilityBase;
+    private final int aliasBase;
+    private final int blobBase;
+
+    private Corpus(String id, ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a corpus file: " + id);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported corpus version " + buffer.getInt(4) + ": " + id);
+        }
+        this.id = id;
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.offsetsBase = HEADER_BYTES;
+        this.probabilityBase = offsetsBase + (size + 1) * Integer.BYTES;
+        this.aliasBase = probabilityBase + size * Float.BYTES;
+        this.blobBase = aliasBase + size * Integer.BYTES;
+        if (size < 1 || blobBase > buffer.limit() || blobBase + offset(size) != buffer.limit()) {
+            throw new IllegalArgumentException("Corrupt corpus file: " + id);
+        }
+    }
+
+    static Corpus open(String id, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new Corpus(id, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static Corpus wrap(String id, ByteBuffer buffer) {
+        return new Corpus(id, buffer);
+    }
+
+    String id() {
+        return id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Draw an entry index with probability proportional to its weight, in O(1)
+     */
+    int sample(RandomGenerator random) {
+        int column = random.nextInt(size);
+        return random.nextFloat() < buffer.getFloat(probabilityBase + column * Float.BYTES)
+                ? column
+                : buffer.getInt(aliasBase + column * Integer.BYTES);
+    }
+
+    int length(int entry) {
+        return offset(entry + 1) - offset(entry);
+    }
+
+    void copy(int entry, byte[] target, int position) {
+        buffer.get(blobBase + offset(entry), target, position, length(entry));
+    }
+
+    // Space separated words in an entry: 1 for a word corpus, more for quotes
+    int words(int entry) {
+        int words = 1;
+        for (int i = blobBase + offset(entry), end = blobBase + offset(entry + 1); i < end; i++) {
+            if (buffer.get(i) == ' ') {
+                words++;
+            }
+        }
+        return words;
+    }
+
+    private int offset(int entry) {
+        return buffer.getInt(offsetsBase + entry * Integer.BYTES);
+    }
+}
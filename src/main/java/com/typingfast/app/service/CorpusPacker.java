@@ -0,0 +1,129 @@
+package com.typingfast.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Packs a plain text word list into the binary format read by {@link Corpus}.
+ * Input has one entry per line, optionally followed by a tab and a frequency
+ * weight; duplicate entries are merged and their weights summed.
+ *
+ * Usage: CorpusPacker words.txt english.tfc
+ */
+public final class CorpusPacker {
+
+    private CorpusPacker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CorpusPacker <input.txt> <output.tfc>");
+            System.exit(2);
+        }
+
+        Map<String, Long> weights = new LinkedHashMap<>();
+        try (Stream<String> lines = Files.lines(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                int tab = line.indexOf('\t');
+                String entry = (tab < 0 ? line : line.substring(0, tab)).strip();
+                long weight = tab < 0 ? 1 : Long.parseLong(line.substring(tab + 1).strip());
+                if (!entry.isEmpty() && weight > 0) {
+                    weights.merge(entry, weight, Long::sum);
+                }
+            });
+        }
+
+        ByteBuffer packed = pack(weights);
+        try (SeekableByteChannel channel = Files.newByteChannel(Path.of(args[1]),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (packed.hasRemaining()) {
+                channel.write(packed);
+            }
+        }
+        System.out.printf("Packed %d entries into %s%n", weights.size(), args[1]);
+    }
+
+    /**
+     * Pack distinct entries with positive weights, in iteration order
+     */
+    static ByteBuffer pack(Map<String, Long> weights) {
+        int size = weights.size();
+        if (size == 0) {
+            throw new IllegalArgumentException("Corpus has no entries");
+        }
+
+        byte[][] entries = new byte[size][];
+        double[] scaled = new double[size];
+        double total = weights.values().stream().mapToDouble(Long::doubleValue).sum();
+        int blobLength = 0;
+        int i = 0;
+        for (Map.Entry<String, Long> entry : weights.entrySet()) {
+            entries[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            scaled[i] = entry.getValue() * size / total;
+            blobLength += entries[i].length;
+            i++;
+        }
+
+        float[] probability = new float[size];
+        int[] alias = new int[size];
+        buildAliasTable(scaled, probability, alias);
+
+        int headerAndTables = Corpus.HEADER_BYTES + (size + 1) * Integer.BYTES + size * (Float.BYTES + Integer.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.addExact(headerAndTables, blobLength));
+        buffer.putInt(Corpus.MAGIC).putInt(Corpus.VERSION).putInt(size).putInt(0);
+        int offset = 0;
+        for (byte[] entry : entries) {
+            buffer.putInt(offset);
+            offset += entry.length;
+        }
+        buffer.putInt(offset);
+        for (float p : probability) {
+            buffer.putFloat(p);
+        }
+        for (int a : alias) {
+            buffer.putInt(a);
+        }
+        for (byte[] entry : entries) {
+            buffer.put(entry);
+        }
+        return buffer.flip();
+    }
+
+    // Vose's alias method; scaled weights average to 1
+    private static void buildAliasTable(double[] scaled, float[] probability, int[] alias) {
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < scaled.length; i++) {
+            (scaled[i] < 1.0 ? small : large).push(i);
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            probability[less] = (float) scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            (scaled[more] < 1.0 ? small : large).push(more);
+        }
+        // Whatever is left is 1 up to rounding error
+        while (!large.isEmpty()) {
+            int i = large.pop();
+            probability[i] = 1.0f;
+            alias[i] = i;
+        }
+        while (!small.isEmpty()) {
+            int i = small.pop();
+            probability[i] = 1.0f;
+            alias[i] = i;
+        }
+    }
+}
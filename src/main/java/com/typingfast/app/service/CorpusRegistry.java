@@ -0,0 +1,99 @@
+package com.typingfast.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Corpora available to text generation, addressed by id.
+ * The built-in programming word list is always present; every *.tfc file in
+ * typing.corpus.directory is memory-mapped and registered under its file name.
+ */
+@Component
+public class CorpusRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CorpusRegistry.class);
+
+    public static final String DEFAULT_CORPUS = "programming";
+    private static final String FILE_EXTENSION = ".tfc";
+
+    private static final List<String> PROGRAMMING_WORDS = List.of(
+            "java", "spring", "boot", "typing", "keyboard", "developer", "backend", "frontend", "api",
+            "database", "mysql", "security", "performance", "accuracy", "speed", "session", "request",
+            "response", "controller", "service", "repository", "model", "entity", "mapping", "config",
+            "filter", "token", "auth", "login", "user", "profile", "score", "timer", "streak", "input",
+            "output", "client", "server", "json", "rest", "http", "status", "error", "valid", "logic", "code",
+            "syntax", "array", "string", "object", "class", "method", "variable", "stream", "lambda", "async",
+            "thread", "memory", "cache", "query", "index", "join", "table", "schema", "test", "junit", "mock",
+            "build", "maven", "gradle", "docker", "cloud", "deploy", "git", "commit", "push", "pull", "merge",
+            "branch", "random", "word", "char", "key", "press", "event", "hook", "state", "effect", "react",
+            "style", "css", "html", "script", "node", "npm", "package", "dependency", "injection", "bean",
+            "context", "scope", "proxy", "aspect", "logger", "debug", "trace", "metric", "monitor", "latency",
+            "bandwidth", "storage", "cluster", "packet", "header", "cookie", "payload", "secret", "crypto",
+            "hash", "salt", "bcrypt", "jwt", "oauth", "claim", "role", "admin", "access", "permit", "deny",
+            "cors", "csrf", "params", "body", "patch", "delete", "post", "get", "put", "update", "save",
+            "find", "list", "page", "sort", "limit", "offset", "count", "sum", "average", "rank", "level"
+    );
+
+    private final Map<String, Corpus> corpora;
+
+    public CorpusRegistry(@Value("${typing.corpus.directory:}") String directory) {
+        Map<String, Corpus> corpora = new TreeMap<>();
+        Map<String, Long> builtIn = new LinkedHashMap<>();
+        PROGRAMMING_WORDS.forEach(word -> builtIn.put(word, 1L));
+        corpora.put(DEFAULT_CORPUS, Corpus.wrap(DEFAULT_CORPUS, CorpusPacker.pack(builtIn)));
+
+        if (!directory.isBlank()) {
+            try (Stream<Path> files = Files.list(Path.of(directory))) {
+                files.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                        .sorted(Comparator.naturalOrder())
+                        .forEach(file -> {
+                            String name = file.getFileName().toString();
+                            String id = name.substring(0, name.length() - FILE_EXTENSION.length());
+                            try {
+                                corpora.put(id, Corpus.open(id, file));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException("Could not map corpus " + file, e);
+                            }
+                        });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not list corpus directory " + directory, e);
+            }
+        }
+
+        this.corpora = Map.copyOf(corpora);
+        log.info("Registered corpora {}", describe());
+    }
+
+    /**
+     * Corpus by id, or the default corpus when id is null
+     */
+    Corpus get(String id) {
+        Corpus corpus = corpora.get(id == null ? DEFAULT_CORPUS : id);
+        if (corpus == null) {
+            throw new IllegalArgumentException("Unknown corpus: " + id);
+        }
+        return corpus;
+    }
+
+    /**
+     * Entry count per corpus id
+     */
+    public Map<String, Integer> describe() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        corpora.forEach((id, corpus) -> sizes.put(id, corpus.size()));
+        return sizes;
+    }
+}
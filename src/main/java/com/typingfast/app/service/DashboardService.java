@@ -1,129 +1,132 @@
 package com.typingfast.app.service;
 
+import com.typingfast.app.dto.HistorySliceResponse;
 import com.typingfast.app.dto.TypingHistoryResponse;
 import com.typingfast.app.dto.UserProfileResponse;
 import com.typingfast.app.dto.UserStatsResponse;
 import com.typingfast.app.entity.TypingResult;
 import com.typingfast.app.entity.User;
+import com.typingfast.app.entity.UserStats;
 import com.typingfast.app.repository.TypingResultRepository;
+import com.typingfast.app.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
+// Read-only transactions go to the read replica when one is configured
 @Service
+@Timed(value = "dashboard.service", histogram = true)
+@Transactional(readOnly = true)
 public class DashboardService {
 
+    private static final int MAX_SLICE_SIZE = 100;
+
     private final TypingResultRepository typingResultRepository;
+    private final UserRepository userRepository;
+    private final UserStatsService userStatsService;
 
-    public DashboardService(TypingResultRepository typingResultRepository) {
+    public DashboardService(
+            TypingResultRepository typingResultRepository,
+            UserRepository userRepository,
+            UserStatsService userStatsService) {
         this.typingResultRepository = typingResultRepository;
+        this.userRepository = userRepository;
+        this.userStatsService = userStatsService;
     }
 
     /**
-     * Get user profile with basic stats
+     * Get user profile with basic stats, or empty if the user no longer exists
+     * (their token can outlive them)
      */
-    public UserProfileResponse getUserProfile(User user) {
-        int totalTests = typingResultRepository.countByUser(user);
-        double bestWpm = typingResultRepository.findBestWpmByUser(user).orElse(0.0);
-        double bestAccuracy = typingResultRepository.findBestAccuracyByUser(user).orElse(0.0);
-
-        return UserProfileResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .createdAt(user.getCreatedAt())
-                .totalTests(totalTests)
-                .bestWpm(Math.round(bestWpm * 100.0) / 100.0)
-                .bestAccuracy(Math.round(bestAccuracy * 100.0) / 100.0)
-                .build();
+    public Optional<UserProfileResponse> getUserProfile(Long userId) {
+        return userRepository.findById(userId).map(user -> {
+            UserStats stats = userStatsService.getStats(userId);
+            return UserProfileResponse.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .createdAt(user.getCreatedAt())
+                    .totalTests(stats.getTotalTests())
+                    .bestWpm(Math.round(stats.getBestWpm() * 100.0) / 100.0)
+                    .bestAccuracy(Math.round(stats.getBestAccuracy() * 100.0) / 100.0)
+                    .build();
+        });
     }
 
     /**
      * Get detailed statistics for the user
      */
-    public UserStatsResponse getUserStats(User user) {
-        int totalTests = typingResultRepository.countByUser(user);
-
-        // If no tests, return zeros
-        if (totalTests == 0) {
-            return UserStatsResponse.builder()
-                    .bestWpm(0.0)
-                    .bestAccuracy(0.0)
-                    .averageWpm(0.0)
-                    .averageAccuracy(0.0)
-                    .totalTests(0)
-                    .totalTimeSeconds(0)
-                    .totalCharactersTyped(0)
-                    .totalErrors(0)
-                    .recentAverageWpm(0.0)
-                    .recentAverageAccuracy(0.0)
-                    .build();
-        }
-
-        double bestWpm = typingResultRepository.findBestWpmByUser(user).orElse(0.0);
-        double bestAccuracy = typingResultRepository.findBestAccuracyByUser(user).orElse(0.0);
-        double avgWpm = typingResultRepository.findAverageWpmByUser(user).orElse(0.0);
-        double avgAccuracy = typingResultRepository.findAverageAccuracyByUser(user).orElse(0.0);
-        int totalDuration = typingResultRepository.findTotalDurationByUser(user);
-        int totalChars = typingResultRepository.findTotalCharsByUser(user);
-        int totalErrors = typingResultRepository.findTotalErrorsByUser(user);
-
-        // Calculate recent trend (last 10 tests)
-        List<TypingResult> recentTests = typingResultRepository.findTop10ByUserOrderByCreatedAtDesc(user);
-        double recentAvgWpm = recentTests.stream()
-                .mapToDouble(TypingResult::getWpm)
-                .average()
-                .orElse(0.0);
-        double recentAvgAccuracy = recentTests.stream()
-                .mapToDouble(TypingResult::getAccuracy)
-                .average()
-                .orElse(0.0);
+    public UserStatsResponse getUserStats(Long userId) {
+        UserStats stats = userStatsService.getStats(userId);
 
         return UserStatsResponse.builder()
-                .bestWpm(Math.round(bestWpm * 100.0) / 100.0)
-                .bestAccuracy(Math.round(bestAccuracy * 100.0) / 100.0)
-                .averageWpm(Math.round(avgWpm * 100.0) / 100.0)
-                .averageAccuracy(Math.round(avgAccuracy * 100.0) / 100.0)
-                .totalTests(totalTests)
-                .totalTimeSeconds(totalDuration)
-                .totalCharactersTyped(totalChars)
-                .totalErrors(totalErrors)
-                .recentAverageWpm(Math.round(recentAvgWpm * 100.0) / 100.0)
-                .recentAverageAccuracy(Math.round(recentAvgAccuracy * 100.0) / 100.0)
+                .bestWpm(Math.round(stats.getBestWpm() * 100.0) / 100.0)
+                .bestAccuracy(Math.round(stats.getBestAccuracy() * 100.0) / 100.0)
+                .averageWpm(Math.round(stats.averageWpm() * 100.0) / 100.0)
+                .averageAccuracy(Math.round(stats.averageAccuracy() * 100.0) / 100.0)
+                .totalTests(stats.getTotalTests())
+                .totalTimeSeconds(stats.getTotalDuration())
+                .totalCharactersTyped(stats.getTotalChars())
+                .totalErrors(stats.getTotalErrors())
+                .recentAverageWpm(Math.round(stats.recentAverageWpm() * 100.0) / 100.0)
+                .recentAverageAccuracy(Math.round(stats.recentAverageAccuracy() * 100.0) / 100.0)
                 .build();
     }
 
     /**
      * Get paginated typing history
      */
-    public Page<TypingHistoryResponse> getTypingHistory(User user, int page, int size) {
+    public Page<TypingHistoryResponse> getTypingHistory(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
+        User user = userRepository.getReferenceById(userId);
         Page<TypingResult> results = typingResultRepository.findByUserOrderByCreatedAtDesc(user, pageable);
 
         return results.map(this::mapToHistoryResponse);
     }
 
     /**
-     * Get all typing history (no pagination)
+     * Get one slice of typing history using keyset pagination.
+     * Cost does not depend on how deep the cursor is and no count query is issued.
      */
-    public List<TypingHistoryResponse> getAllTypingHistory(User user) {
-        List<TypingResult> results = typingResultRepository.findByUserOrderByCreatedAtDesc(user);
-        return results.stream()
-                .map(this::mapToHistoryResponse)
-                .collect(Collectors.toList());
+    public HistorySliceResponse getTypingHistorySlice(Long userId, String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, Math.min(Math.max(size, 1), MAX_SLICE_SIZE));
+        User user = userRepository.getReferenceById(userId);
+
+        Slice<TypingResult> results;
+        if (cursor == null || cursor.isBlank()) {
+            results = typingResultRepository.findByUserOrderByCreatedAtDescIdDesc(user, pageable);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            results = typingResultRepository.findByUserAfterCursor(user, after.createdAt(), after.id(), pageable);
+        }
+
+        String nextCursor = null;
+        if (results.hasNext()) {
+            TypingResult last = results.getContent().get(results.getNumberOfElements() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return HistorySliceResponse.builder()
+                .content(results.map(this::mapToHistoryResponse).getContent())
+                .nextCursor(nextCursor)
+                .hasNext(results.hasNext())
+                .build();
     }
 
     /**
-     * Map entity to DTO
+     * Map entity to DTO (package-private for the mapping benchmark)
      */
-    private TypingHistoryResponse mapToHistoryResponse(TypingResult result) {
+    TypingHistoryResponse mapToHistoryResponse(TypingResult result) {
         return TypingHistoryResponse.builder()
                 .id(result.getId())
                 .duration(result.getDuration())
+                .durationMillis(result.getDurationMillis())
                 .totalChars(result.getTotalChars())
                 .correctChars(result.getCorrectChars())
                 .errors(result.getErrors())
@@ -0,0 +1,94 @@
+package com.typingfast.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ETag;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version of each user's dashboard data, changed after every
+ * committed result, behind the ETags of the dashboard endpoints.
+ *
+ * Versions are drawn from one global sequence, so a user who is evicted and
+ * comes back gets a version that was never handed out before, and tags carry
+ * the instance's start time, so tags issued before a restart never match.
+ * Like the leaderboards, this assumes results are recorded by this instance.
+ *
+ * The version says nothing about which data source served the body: a read
+ * routed to a replica that still lags once the read-your-writes window has
+ * passed is cached under the current tag and revalidates as 304 until the
+ * next submit, so that window has to cover the replica's worst lag.
+ */
+@Service
+public class DataVersionService {
+
+    // An evicted user just gets a fresh version, which costs their next read a 200
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<Long, Long> versions = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_USERS)
+            .build();
+
+    private final Counter notModified;
+    private final Counter modified;
+
+    public DataVersionService(MeterRegistry meterRegistry) {
+        this.notModified = Counter.builder("dashboard.conditional")
+                .description("Dashboard requests answered from the client's copy (304) or in full")
+                .tag("result", "not_modified")
+                .register(meterRegistry);
+        this.modified = Counter.builder("dashboard.conditional")
+                .description("Dashboard requests answered from the client's copy (304) or in full")
+                .tag("result", "modified")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mark the user's data as changed; call once the write has committed
+     */
+    public void bump(Long userId) {
+        versions.put(userId, sequence.incrementAndGet());
+    }
+
+    public long version(Long userId) {
+        return versions.get(userId, id -> sequence.incrementAndGet());
+    }
+
+    /**
+     * Strong ETag for the user's current data; parts tell apart responses
+     * that also depend on something else, such as today's date
+     */
+    public String etag(Long userId, Object... parts) {
+        StringBuilder tag = new StringBuilder("\"")
+                .append(epoch).append('-')
+                .append(userId).append('-')
+                .append(Long.toString(version(userId), 36));
+        for (Object part : parts) {
+            tag.append('-').append(part);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Whether an If-None-Match header names the current tag (weak comparison, as for GET)
+     */
+    public boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch != null) {
+            ETag current = ETag.create(etag);
+            for (ETag candidate : ETag.parse(ifNoneMatch)) {
+                if (candidate.isWildcard() || candidate.compare(current, false)) {
+                    notModified.increment();
+                    return true;
+                }
+            }
+        }
+        modified.increment();
+        return false;
+    }
+}
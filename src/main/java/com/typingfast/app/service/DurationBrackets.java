@@ -0,0 +1,53 @@
+package com.typingfast.app.service;
+
+import java.util.Arrays;
+
+/**
+ * Test duration brackets, each identified by its upper bound in seconds:
+ * with bounds 15,30,60,120 a 40s test lands in the 60s bracket.
+ */
+class DurationBrackets {
+
+    private final int[] bounds;
+
+    DurationBrackets(int[] bounds) {
+        this.bounds = Arrays.stream(bounds).sorted().distinct().toArray();
+    }
+
+    int size() {
+        return bounds.length;
+    }
+
+    /**
+     * Bracket a result of this duration belongs to, or -1 if longer than every bound
+     */
+    int indexOf(int duration) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (duration <= bounds[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bracket named by its upper bound, as given in a request parameter.
+     * Unlike indexOf this only accepts a bound itself: indexOfBound(60) is the
+     * bracket indexOf files 31..60s results under, but indexOfBound(40) fails.
+     */
+    int indexOfBound(int bound) {
+        int index = Arrays.binarySearch(bounds, bound);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown duration, expected one of " + Arrays.toString(bounds));
+        }
+        return index;
+    }
+
+    /**
+     * Longest duration that belongs to the bracket below, so the bracket holds
+     * lowerBound(index) < duration <= its bound
+     */
+    int lowerBound(int index) {
+        return index == 0 ? Integer.MIN_VALUE : bounds[index - 1];
+    }
+}
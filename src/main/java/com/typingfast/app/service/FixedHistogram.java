@@ -0,0 +1,65 @@
+package com.typingfast.app.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram over fixed-width buckets on [0, max].
+ * Memory depends only on the range and resolution, never on how many values
+ * are recorded; finite values above max are clamped into the last bucket,
+ * and NaN or infinite ones are refused.
+ */
+class FixedHistogram {
+
+    // Buckets per unit, e.g. 10 for 0.1 wide buckets
+    private final int scale;
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+
+    FixedHistogram(int max, int scale) {
+        this.scale = scale;
+        this.counts = new AtomicLongArray(max * scale + 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException if value is NaN or infinite
+     */
+    void record(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Histogram values must be finite: " + value);
+        }
+        add(bucket(value), 1);
+    }
+
+    // Bulk load of a bucket count, e.g. from a GROUP BY at startup
+    void add(int bucket, long count) {
+        counts.addAndGet(Math.min(Math.max(bucket, 0), counts.length() - 1), count);
+        total.addAndGet(count);
+    }
+
+    /**
+     * Percentage of recorded values that fall in a lower bucket than value,
+     * or NaN if nothing has been recorded yet
+     */
+    double percentileOf(double value) {
+        long recorded = total.get();
+        if (recorded == 0) {
+            return Double.NaN;
+        }
+        int bucket = bucket(value);
+        long below = 0;
+        for (int i = 0; i < bucket; i++) {
+            below += counts.get(i);
+        }
+        return Math.min(100.0, below * 100.0 / recorded);
+    }
+
+    long totalCount() {
+        return total.get();
+    }
+
+    int bucket(double value) {
+        int bucket = (int) Math.floor(value * scale);
+        return Math.min(Math.max(bucket, 0), counts.length() - 1);
+    }
+}
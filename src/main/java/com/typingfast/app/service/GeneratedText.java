@@ -0,0 +1,7 @@
+package com.typingfast.app.service;
+
+/**
+ * A practice text together with what is needed to regenerate it exactly.
+ */
+public record GeneratedText(long seed, int wordCount, String corpus, String text) {
+}
@@ -0,0 +1,51 @@
+package com.typingfast.app.service;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position in a user's history, encoded as an opaque URL-safe string.
+ * Holds the (createdAt, id) of the last row returned; the next slice
+ * starts strictly after it in (createdAt DESC, id DESC) order.
+ */
+record HistoryCursor(LocalDateTime createdAt, long id) {
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .putLong(createdAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(createdAt.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    static HistoryCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+        if (bytes.length != ENCODED_BYTES) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long epochSecond = buffer.getLong();
+        int nanos = buffer.getInt();
+        long id = buffer.getLong();
+        if (nanos < 0 || nanos > 999_999_999) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+        try {
+            return new HistoryCursor(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC), id);
+        } catch (DateTimeException e) {
+            // Seconds beyond the range LocalDateTime supports
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+    }
+}
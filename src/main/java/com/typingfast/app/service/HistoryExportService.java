@@ -0,0 +1,117 @@
+package com.typingfast.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typingfast.app.dto.TypingHistoryResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Streams a user's full typing history straight from a JDBC cursor to the
+ * response, so memory use does not grow with the size of the history.
+ */
+@Service
+public class HistoryExportService {
+
+    private static final String HISTORY_SQL =
+            "SELECT id, duration, duration_millis, total_chars, correct_chars, errors, wpm, accuracy, created_at " +
+            "FROM typing_results WHERE user_id = ? ORDER BY created_at DESC, id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public HistoryExportService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${history.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Write the history as newline-delimited JSON, one result per line
+     */
+    @Transactional(readOnly = true)
+    public void writeNdjson(Long userId, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            stream(userId, row -> {
+                generator.writeObject(row);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    /**
+     * Write the history as a single JSON array, element by element
+     */
+    @Transactional(readOnly = true)
+    public void writeJsonArray(Long userId, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            stream(userId, generator::writeObject);
+            generator.writeEndArray();
+        }
+    }
+
+    private void stream(Long userId, RowWriter writer) throws IOException {
+        try {
+            jdbcTemplate.query(connection -> prepare(connection, userId), (RowCallbackHandler) rs -> {
+                try {
+                    writer.write(mapRow(rs));
+                } catch (IOException e) {
+                    // Client went away; abort the query
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private PreparedStatement prepare(Connection connection, Long userId) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                HISTORY_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(streamingFetchSize(connection));
+        statement.setLong(1, userId);
+        return statement;
+    }
+
+    // MySQL Connector/J only streams rows (instead of buffering the whole result) with MIN_VALUE
+    private int streamingFetchSize(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        return "MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    private static TypingHistoryResponse mapRow(ResultSet rs) throws SQLException {
+        return TypingHistoryResponse.builder()
+                .id(rs.getLong("id"))
+                .duration(rs.getInt("duration"))
+                .durationMillis(rs.getObject("duration_millis", Integer.class))
+                .totalChars(rs.getInt("total_chars"))
+                .correctChars(rs.getInt("correct_chars"))
+                .errors(rs.getInt("errors"))
+                .wpm(Math.round(rs.getDouble("wpm") * 100.0) / 100.0)
+                .accuracy(Math.round(rs.getDouble("accuracy") * 100.0) / 100.0)
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(TypingHistoryResponse row) throws IOException;
+    }
+}
@@ -1,33 +1,95 @@
 package com.typingfast.app.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.typingfast.app.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    public static final String USER_ID_CLAIM = "uid";
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+
+    // Verified claims keyed by SHA-256 of the token; entries live until the token expires
+    private final Cache<String, Claims> claimsCache;
+    private final Timer verifyTimer;
+
+    public JwtService(
+            @Value("${jwt.secret}") String secretKey,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry) {
+        // Key and parser are immutable and thread-safe, so build them once
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+        this.verifyTimer = Timer.builder("jwt.verify")
+                .description("Time spent parsing and verifying uncached tokens")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims of a token with a valid signature that has not expired, verified
+     * once and then served from the cache; throws JwtException otherwise.
+     * Callers that need several claims should read them all from the result.
+     */
+    public Claims verify(String token) {
+        Claims claims = extractAllClaims(token);
+        Date expiration = claims.getExpiration();
+        // The cache evicts at expiry, but an entry can outlive it by a few moments
+        if (expiration == null || expiration.before(new Date())) {
+            throw new ExpiredJwtException(null, claims, "Token has expired");
+        }
+        return claims;
+    }
+
+    // User id claim (null for tokens issued before the claim existed)
+    public static Long userId(Claims claims) {
+        return claims.get(USER_ID_CLAIM, Long.class);
+    }
 
     // Extract username from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
+    // Extract user id from token (null for tokens issued before the claim existed)
+    public Long extractUserId(String token) {
+        return extractClaim(token, JwtService::userId);
+    }
+
     // Extract expiration from token
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
@@ -39,35 +101,23 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    // Extract all claims
+    // Extract all claims, verifying the token only on a cache miss
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return claimsCache.get(hash(token), key -> verifyTimer.record(() -> parser
                 .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // Get signing key
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+                .getPayload()));
     }
 
     // Generate token for user
-    public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+    public String generateToken(User user) {
+        return generateToken(new HashMap<>(), user);
     }
 
     // Generate token with extra claims
-    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return createToken(extraClaims, userDetails.getUsername());
+    public String generateToken(Map<String, Object> extraClaims, User user) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.put(USER_ID_CLAIM, user.getId());
+        return createToken(claims, user.getUsername());
     }
 
     // Create the token
@@ -77,13 +127,51 @@ public class JwtService {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    // Validate token
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    // Validate token (signature is verified when the claims are first parsed)
+    public Boolean validateToken(String token) {
+        try {
+            return verify(token).getSubject() != null;
+        } catch (ExpiredJwtException e) {
+            return false;
+        }
+    }
+
+    // Cache key: the raw token is never retained, only its digest
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Evict each entry when the token it was verified from expires
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,99 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.HeatmapResponse;
+import com.typingfast.app.dto.KeyErrorResponse;
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.entity.UserKeyStats;
+import com.typingfast.app.repository.UserKeyStatsRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the per-user key and bigram error vector behind the heatmap.
+ */
+@Service
+public class KeyStatsService {
+
+    private static final byte[] EMPTY_COUNTS = new byte[UserKeyStats.SIZE * Integer.BYTES];
+
+    private final UserKeyStatsRepository userKeyStatsRepository;
+
+    public KeyStatsService(UserKeyStatsRepository userKeyStatsRepository) {
+        this.userKeyStatsRepository = userKeyStatsRepository;
+    }
+
+    /**
+     * Merge the key stats carried by just-inserted results into their users' vectors.
+     * Must run in the inserting transaction, after the user_stats update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyAll(List<TypingResult> results) {
+        // Sum per user first, then lock rows in user id order like UserStatsService
+        Map<Long, int[]> byUser = new TreeMap<>();
+        for (TypingResult result : results) {
+            int[] delta = result.getKeyStats();
+            if (delta == null) {
+                continue;
+            }
+            int[] sum = byUser.computeIfAbsent(result.getUser().getId(), id -> new int[UserKeyStats.SIZE]);
+            for (int i = 0; i < UserKeyStats.SIZE; i++) {
+                sum[i] += delta[i];
+            }
+        }
+
+        for (Map.Entry<Long, int[]> entry : byUser.entrySet()) {
+            userKeyStatsRepository.insertIfAbsent(entry.getKey(), EMPTY_COUNTS);
+            UserKeyStats stats = userKeyStatsRepository.findByIdForUpdate(entry.getKey())
+                    .orElseThrow(() -> new IllegalStateException("Missing key stats for user " + entry.getKey()));
+            stats.merge(entry.getValue());
+            userKeyStatsRepository.save(stats);
+        }
+    }
+
+    /**
+     * Key and bigram error rates for the user, read from their single stats row
+     */
+    @Transactional(readOnly = true)
+    public HeatmapResponse getHeatmap(Long userId) {
+        int[] counts = userKeyStatsRepository.findById(userId)
+                .map(UserKeyStats::getCounts)
+                .orElseGet(() -> new int[UserKeyStats.SIZE]);
+
+        List<KeyErrorResponse> keys = new ArrayList<>();
+        for (int key = 0; key < UserKeyStats.KEYS; key++) {
+            addIfTyped(keys, String.valueOf((char) (UserKeyStats.FIRST_KEY + key)),
+                    counts[UserKeyStats.KEY_HITS + key], counts[UserKeyStats.KEY_ERRORS + key]);
+        }
+
+        List<KeyErrorResponse> bigrams = new ArrayList<>();
+        for (int bigram = 0; bigram < UserKeyStats.BIGRAMS; bigram++) {
+            String pair = "" + UserKeyStats.bigramChar(bigram / UserKeyStats.BIGRAM_SYMBOLS)
+                    + UserKeyStats.bigramChar(bigram % UserKeyStats.BIGRAM_SYMBOLS);
+            addIfTyped(bigrams, pair,
+                    counts[UserKeyStats.BIGRAM_HITS + bigram], counts[UserKeyStats.BIGRAM_ERRORS + bigram]);
+        }
+
+        return HeatmapResponse.builder()
+                .keys(keys)
+                .bigrams(bigrams)
+                .build();
+    }
+
+    private static void addIfTyped(List<KeyErrorResponse> target, String key, int hits, int errors) {
+        if (hits == 0) {
+            return;
+        }
+        target.add(KeyErrorResponse.builder()
+                .key(key)
+                .hits(hits)
+                .errors(errors)
+                .errorRate(Math.round(errors * 10000.0 / hits) / 100.0)
+                .build());
+    }
+}
@@ -0,0 +1,285 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.BigramLatencyResponse;
+import com.typingfast.app.dto.KeystrokeStatsResponse;
+import com.typingfast.app.entity.UserKeyStats;
+import com.typingfast.app.repository.KeystrokeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes, compresses and analyses keystroke streams.
+ *
+ * A stream is a sequence of events, each two unsigned LEB128 varints:
+ * milliseconds since the previous event (since the start for the first),
+ * then codePoint << 1 | correct. Clients send it base64 encoded. All
+ * statistics come from one pass over the bytes into fixed-size arrays.
+ */
+@Service
+public class KeystrokeService {
+
+    // Intervals are histogrammed at 1 ms up to this bound; longer ones share the last bucket
+    private static final int MAX_TRACKED_LATENCY = 2000;
+    private static final int BURST_WINDOW = 10;
+    private static final int SLOWEST_BIGRAMS = 5;
+
+    private final KeystrokeRepository keystrokeRepository;
+    private final int maxEvents;
+    private final int hesitationMillis;
+
+    public KeystrokeService(
+            KeystrokeRepository keystrokeRepository,
+            @Value("${typing.keystrokes.max-events:20000}") int maxEvents,
+            @Value("${typing.keystrokes.hesitation-ms:1000}") int hesitationMillis) {
+        this.keystrokeRepository = keystrokeRepository;
+        this.maxEvents = maxEvents;
+        this.hesitationMillis = hesitationMillis;
+    }
+
+    /**
+     * Decode and validate a base64 stream from a submit request
+     */
+    public byte[] decode(String base64) {
+        byte[] stream;
+        try {
+            stream = Base64.getDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("keystrokes is not valid base64");
+        }
+        if (stream.length == 0) {
+            throw new IllegalArgumentException("keystrokes is empty");
+        }
+        int events = 0;
+        VarintReader reader = new VarintReader(stream);
+        while (reader.hasNext()) {
+            reader.next();
+            reader.next();
+            if (++events > maxEvents) {
+                throw new IllegalArgumentException("keystrokes has more than " + maxEvents + " events");
+            }
+        }
+        return stream;
+    }
+
+    public byte[] compress(byte[] stream) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(stream);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(stream.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public byte[] inflate(byte[] compressed, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] stream = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(stream, read, length - read);
+                // A truncated blob leaves the inflater waiting for input that never comes
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated keystroke data");
+                }
+                read += inflated;
+            }
+            if (read < length) {
+                throw new IllegalStateException("Keystroke data is shorter than recorded");
+            }
+            return stream;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt keystroke data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Get statistics for a stored result; empty when it has no stream or is not the user's
+     */
+    public Optional<KeystrokeStatsResponse> getStats(Long userId, Long resultId) {
+        return keystrokeRepository.findByResult(userId, resultId)
+                .map(data -> analyze(inflate(data.compressed(), data.rawLength())));
+    }
+
+    public KeystrokeStatsResponse analyze(byte[] stream) {
+        int[] latencies = new int[MAX_TRACKED_LATENCY + 1];
+        long[] bigramMillis = new long[UserKeyStats.BIGRAMS];
+        int[] bigramCounts = new int[UserKeyStats.BIGRAMS];
+        int[] window = new int[BURST_WINDOW];
+
+        int keystrokes = 0;
+        int incorrect = 0;
+        int intervals = 0;
+        int hesitations = 0;
+        int longestPause = 0;
+        int longestPauseAt = 0;
+        long windowMillis = 0;
+        int run = 0;
+        long fastestWindow = Long.MAX_VALUE;
+        int previousSymbol = -1;
+
+        VarintReader reader = new VarintReader(stream);
+        while (reader.hasNext()) {
+            long delta = reader.next();
+            long key = reader.next();
+
+            int millis = (int) Math.min(delta, Integer.MAX_VALUE);
+            int codePoint = (int) (key >>> 1);
+            boolean correct = (key & 1) == 1;
+
+            if (keystrokes > 0) {
+                intervals++;
+                latencies[Math.min(millis, MAX_TRACKED_LATENCY)]++;
+                if (millis >= hesitationMillis) {
+                    hesitations++;
+                }
+                if (millis > longestPause) {
+                    longestPause = millis;
+                    longestPauseAt = keystrokes;
+                }
+
+                int symbol = UserKeyStats.bigramSymbol(codePoint);
+                if (correct && previousSymbol >= 0 && symbol >= 0) {
+                    int bigram = previousSymbol * UserKeyStats.BIGRAM_SYMBOLS + symbol;
+                    bigramMillis[bigram] += millis;
+                    bigramCounts[bigram]++;
+                }
+
+                // Sliding window over the last BURST_WINDOW intervals between correct keys
+                if (correct) {
+                    windowMillis += millis - window[run % BURST_WINDOW];
+                    window[run % BURST_WINDOW] = millis;
+                    run++;
+                    if (run >= BURST_WINDOW && windowMillis < fastestWindow) {
+                        fastestWindow = windowMillis;
+                    }
+                }
+            }
+            if (!correct) {
+                incorrect++;
+                run = 0;
+                windowMillis = 0;
+                Arrays.fill(window, 0);
+            }
+
+            previousSymbol = correct ? UserKeyStats.bigramSymbol(codePoint) : -1;
+            keystrokes++;
+        }
+
+        double burstWpm = fastestWindow == Long.MAX_VALUE || fastestWindow == 0
+                ? 0.0
+                : Math.round(BURST_WINDOW / 5.0 / (fastestWindow / 60000.0) * 100.0) / 100.0;
+
+        return KeystrokeStatsResponse.builder()
+                .keystrokes(keystrokes)
+                .incorrectKeystrokes(incorrect)
+                .medianLatencyMillis(percentile(latencies, intervals, 0.50))
+                .p95LatencyMillis(percentile(latencies, intervals, 0.95))
+                .hesitations(hesitations)
+                .longestPauseMillis(longestPause)
+                .longestPauseAt(longestPauseAt)
+                .burstWpm(burstWpm)
+                .slowestBigrams(slowestBigrams(bigramMillis, bigramCounts))
+                .build();
+    }
+
+    private static int percentile(int[] histogram, int total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int millis = 0; millis < histogram.length; millis++) {
+            seen += histogram[millis];
+            if (seen >= rank) {
+                return millis;
+            }
+        }
+        return MAX_TRACKED_LATENCY;
+    }
+
+    // Bigrams seen at least twice, slowest average first
+    private static List<BigramLatencyResponse> slowestBigrams(long[] millis, int[] counts) {
+        int[] slowest = new int[SLOWEST_BIGRAMS];
+        int found = 0;
+        for (int bigram = 0; bigram < counts.length; bigram++) {
+            if (counts[bigram] < 2) {
+                continue;
+            }
+            double average = average(millis, counts, bigram);
+            if (found == SLOWEST_BIGRAMS && average <= average(millis, counts, slowest[SLOWEST_BIGRAMS - 1])) {
+                continue;
+            }
+            // Insert into the small sorted array, dropping the fastest when full
+            int at = found < SLOWEST_BIGRAMS ? found++ : SLOWEST_BIGRAMS - 1;
+            while (at > 0 && average(millis, counts, slowest[at - 1]) < average) {
+                slowest[at] = slowest[at - 1];
+                at--;
+            }
+            slowest[at] = bigram;
+        }
+
+        List<BigramLatencyResponse> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int bigram = slowest[i];
+            result.add(BigramLatencyResponse.builder()
+                    .bigram("" + UserKeyStats.bigramChar(bigram / UserKeyStats.BIGRAM_SYMBOLS)
+                            + UserKeyStats.bigramChar(bigram % UserKeyStats.BIGRAM_SYMBOLS))
+                    .count(counts[bigram])
+                    .averageMillis(Math.round(average(millis, counts, bigram) * 10.0) / 10.0)
+                    .build());
+        }
+        return result;
+    }
+
+    private static double average(long[] millis, int[] counts, int bigram) {
+        return (double) millis[bigram] / counts[bigram];
+    }
+
+    private static final class VarintReader {
+        private final byte[] stream;
+        private int position;
+
+        VarintReader(byte[] stream) {
+            this.stream = stream;
+        }
+
+        boolean hasNext() {
+            return position < stream.length;
+        }
+
+        long next() {
+            long value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (position >= stream.length) {
+                    throw new IllegalArgumentException("keystrokes ends inside a varint");
+                }
+                byte b = stream[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("keystrokes has a varint longer than 5 bytes");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.typingfast.app.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-memory ranking of users by personal best WPM.
+ * WPM is quantized to 0.01. Entries are kept in a skip list ordered by
+ * (quantized bestWpm desc, userId asc) for O(log n + k) top-k reads, and
+ * counted in a Fenwick tree over the same buckets, fastest first, so a rank
+ * is one prefix query: O(log buckets) without walking the list. Users in one
+ * bucket share a rank and are listed by user id.
+ * Reads are lock-free and updates to one board are serialized. A read racing
+ * updates may miscount the users that moved while it ran, but every tree node
+ * stays a non-negative count, so a rank is never below 1.
+ */
+class Leaderboard {
+
+    // Scores are ranked in 0.01 WPM steps; anything faster shares the top bucket
+    static final double MAX_WPM = 500.0;
+    private static final int SCALE = 100;
+    private static final int BUCKETS = (int) (MAX_WPM * SCALE) + 1;
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry entry) -> bucket(entry.bestWpm()))
+            .thenComparingLong(Entry::userId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Entry> byUser = new ConcurrentHashMap<>();
+
+    // Fenwick tree of user counts per bucket; index 1-based, 1 = fastest
+    private final AtomicIntegerArray tree = new AtomicIntegerArray(BUCKETS + 1);
+
+    record Entry(long userId, String username, double bestWpm) {
+    }
+
+    /**
+     * Record a result, replacing the user's entry only if it beats their best
+     *
+     * @return true if the personal best changed
+     * @throws IllegalArgumentException if wpm is NaN or infinite
+     */
+    synchronized boolean offer(long userId, String username, double wpm) {
+        if (!Double.isFinite(wpm)) {
+            throw new IllegalArgumentException("WPM must be finite: " + wpm);
+        }
+        Entry current = byUser.get(userId);
+        if (current != null && current.bestWpm() >= wpm) {
+            return false;
+        }
+
+        Entry next = new Entry(userId, username, wpm);
+        if (current != null) {
+            ranking.remove(current);
+            add(bucket(current.bestWpm()), -1);
+        }
+        ranking.add(next);
+        byUser.put(userId, next);
+        add(bucket(wpm), 1);
+        return true;
+    }
+
+    List<Entry> top(int limit) {
+        List<Entry> top = new ArrayList<>(Math.min(limit, byUser.size()));
+        for (Entry entry : ranking) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    Entry entry(long userId) {
+        return byUser.get(userId);
+    }
+
+    /**
+     * 1-based rank of a score: one more than the number of users in faster buckets
+     */
+    int rankOf(double wpm) {
+        return prefixCount(bucket(wpm) - 1) + 1;
+    }
+
+    int size() {
+        return byUser.size();
+    }
+
+    // Fastest bucket first, so a prefix counts the users ahead
+    private static int bucket(double wpm) {
+        int bucket = (int) Math.round(Math.min(Math.max(wpm, 0.0), MAX_WPM) * SCALE);
+        return BUCKETS - bucket;
+    }
+
+    private void add(int index, int delta) {
+        for (int i = index; i <= BUCKETS; i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+    }
+
+    // Users whose bucket is <= index
+    private int prefixCount(int index) {
+        int count = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            count += tree.get(i);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,99 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.LeaderboardEntryResponse;
+import com.typingfast.app.dto.LeaderboardResponse;
+import com.typingfast.app.repository.LeaderboardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Global and per-duration leaderboards of personal best WPM, held in memory.
+ * Warmed from typing_results at startup and updated on every submit.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final Leaderboard global = new Leaderboard();
+
+    private final DurationBrackets brackets;
+    private final Leaderboard[] byDuration;
+
+    public LeaderboardService(
+            LeaderboardRepository leaderboardRepository,
+            @Value("${leaderboard.durations:15,30,60,120}") int[] durationBounds) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.brackets = new DurationBrackets(durationBounds);
+        this.byDuration = new Leaderboard[brackets.size()];
+        for (int i = 0; i < byDuration.length; i++) {
+            byDuration[i] = new Leaderboard();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        leaderboardRepository.forEachPersonalBest((userId, username, duration, wpm) -> {
+            // Rows saved before results were checked may hold values no board accepts
+            if (Double.isFinite(wpm)) {
+                recordResult(userId, username, duration, wpm);
+            }
+        });
+        log.info("Loaded leaderboard with {} users in {} ms", global.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Offer a new result to the boards; only personal bests change anything
+     */
+    public void recordResult(long userId, String username, int duration, double wpm) {
+        global.offer(userId, username, wpm);
+        int bracket = brackets.indexOf(duration);
+        if (bracket >= 0) {
+            byDuration[bracket].offer(userId, username, wpm);
+        }
+    }
+
+    /**
+     * Top entries of the overall board, or of one duration bracket
+     *
+     * @param duration bracket upper bound in seconds, or null for the overall board
+     * @param userId   current user, or null when anonymous
+     */
+    public LeaderboardResponse getLeaderboard(Integer duration, int limit, Long userId) {
+        Leaderboard board = boardFor(duration);
+
+        List<LeaderboardEntryResponse> entries = board.top(Math.min(Math.max(limit, 1), MAX_LIMIT)).stream()
+                .map(entry -> LeaderboardEntryResponse.builder()
+                        .rank(board.rankOf(entry.bestWpm()))
+                        .username(entry.username())
+                        .bestWpm(Math.round(entry.bestWpm() * 100.0) / 100.0)
+                        .build())
+                .toList();
+
+        LeaderboardResponse.LeaderboardResponseBuilder response = LeaderboardResponse.builder()
+                .duration(duration)
+                .totalUsers(board.size())
+                .entries(entries);
+
+        Leaderboard.Entry own = userId == null ? null : board.entry(userId);
+        if (own != null) {
+            response.yourRank(board.rankOf(own.bestWpm()))
+                    .yourBestWpm(Math.round(own.bestWpm() * 100.0) / 100.0);
+        }
+        return response.build();
+    }
+
+    private Leaderboard boardFor(Integer duration) {
+        return duration == null ? global : byDuration[brackets.indexOfBound(duration)];
+    }
+}
@@ -0,0 +1,11 @@
+package com.typingfast.app.service;
+
+/**
+ * Outcome of a password verification
+ *
+ * @param matches  whether the password was correct
+ * @param rehashed a new hash at the current work factor when the stored one
+ *                 used another, otherwise null
+ */
+public record PasswordCheck(boolean matches, String rehashed) {
+}
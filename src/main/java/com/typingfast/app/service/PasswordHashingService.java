@@ -0,0 +1,128 @@
+package com.typingfast.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small dedicated pool so a burst of logins cannot take every
+ * CPU. The request thread still waits for its hash, but at most threads plus
+ * queue-capacity requests ever wait on hashing: beyond that work is refused
+ * straight away with RejectedExecutionException, and the rest of the request
+ * threads stay free for other endpoints.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+    // Checked for unknown users so their logins take as long as real ones
+    private final String dummyHash;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${auth.bcrypt.strength:10}") int strength,
+            @Value("${auth.bcrypt.threads:0}") int threads,
+            @Value("${auth.bcrypt.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("auth.bcrypt.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a BCrypt thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.bcrypt.rejected")
+                .description("Logins and signups refused because the BCrypt queue was full")
+                .register(meterRegistry);
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    /**
+     * Hash a new password
+     *
+     * @throws RejectedExecutionException if the hashing queue is full
+     */
+    public String hash(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Check a password against a stored hash, or against a dummy hash when there
+     * is no user, and rehash it in the same task if its work factor is outdated
+     *
+     * @throws RejectedExecutionException if the hashing queue is full
+     */
+    public PasswordCheck verify(String rawPassword, String encodedPassword) {
+        return run(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, dummyHash);
+                return new PasswordCheck(false, null);
+            }
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new PasswordCheck(false, null);
+            }
+            return new PasswordCheck(true,
+                    needsRehash(encodedPassword) ? passwordEncoder.encode(rawPassword) : null);
+        });
+    }
+
+    /**
+     * Whether a BCrypt hash ($2a$10$...) was made with a work factor other than
+     * the configured one, higher or lower
+     */
+    boolean needsRehash(String encodedPassword) {
+        if (encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            return executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
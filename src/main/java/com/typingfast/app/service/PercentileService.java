@@ -0,0 +1,143 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.PercentileResponse;
+import com.typingfast.app.entity.UserStats;
+import com.typingfast.app.repository.ResultDistributionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Population percentiles of WPM and accuracy, overall and per duration bracket.
+ * Backed by fixed-bucket histograms (0.1 resolution, WPM up to 300), so memory
+ * stays constant however many results are recorded.
+ */
+@Service
+public class PercentileService {
+
+    private static final Logger log = LoggerFactory.getLogger(PercentileService.class);
+
+    private static final int MAX_WPM = 300;
+    private static final int MAX_ACCURACY = 100;
+    private static final int SCALE = 10;
+
+    private final ResultDistributionRepository distributionRepository;
+    private final UserStatsService userStatsService;
+    private final DurationBrackets brackets;
+
+    // Index 0 is the overall population, index i + 1 is duration bracket i
+    private final FixedHistogram[] wpm;
+    private final FixedHistogram[] accuracy;
+
+    public PercentileService(
+            ResultDistributionRepository distributionRepository,
+            UserStatsService userStatsService,
+            @Value("${leaderboard.durations:15,30,60,120}") int[] durationBounds) {
+        this.distributionRepository = distributionRepository;
+        this.userStatsService = userStatsService;
+        this.brackets = new DurationBrackets(durationBounds);
+        this.wpm = new FixedHistogram[brackets.size() + 1];
+        this.accuracy = new FixedHistogram[brackets.size() + 1];
+        for (int i = 0; i < wpm.length; i++) {
+            wpm[i] = new FixedHistogram(MAX_WPM, SCALE);
+            accuracy[i] = new FixedHistogram(MAX_ACCURACY, SCALE);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        distributionRepository.forEachBucket("wpm", SCALE, (duration, bucket, count) -> {
+            wpm[0].add(bucket, count);
+            int slot = slotFor(duration);
+            if (slot > 0) {
+                wpm[slot].add(bucket, count);
+            }
+        });
+        distributionRepository.forEachBucket("accuracy", SCALE, (duration, bucket, count) -> {
+            accuracy[0].add(bucket, count);
+            int slot = slotFor(duration);
+            if (slot > 0) {
+                accuracy[slot].add(bucket, count);
+            }
+        });
+        log.info("Loaded percentile histograms from {} results in {} ms",
+                wpm[0].totalCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add a persisted result to the population
+     */
+    public void recordResult(int duration, double resultWpm, double resultAccuracy) {
+        wpm[0].record(resultWpm);
+        accuracy[0].record(resultAccuracy);
+        int slot = slotFor(duration);
+        if (slot > 0) {
+            wpm[slot].record(resultWpm);
+            accuracy[slot].record(resultAccuracy);
+        }
+    }
+
+    /**
+     * Share of results at this test's duration that were slower, or null with no data yet
+     */
+    public Double wpmPercentile(int duration, double resultWpm) {
+        return round(wpm[slotFor(duration)].percentileOf(resultWpm));
+    }
+
+    /**
+     * Where the user's averages and best sit in the overall population, or in one duration bracket.
+     * With a bracket, the user's figures come from their own results in that bracket too,
+     * so they are compared like with like
+     *
+     * @param duration bracket upper bound in seconds, or null for all results
+     */
+    @Transactional(readOnly = true)
+    public PercentileResponse getUserPercentiles(Long userId, Integer duration) {
+        if (duration == null) {
+            UserStats stats = userStatsService.getStats(userId);
+            return percentiles(null, 0, stats.averageWpm(), stats.getBestWpm(), stats.averageAccuracy());
+        }
+
+        int index = brackets.indexOfBound(duration);
+        // Same range slotFor files results under: above the next smaller bound, up to this one
+        return userStatsService.getStats(userId, brackets.lowerBound(index), duration)
+                .map(aggregate -> percentiles(duration, index + 1,
+                        aggregate.getSumWpm() / aggregate.getTotalTests(),
+                        aggregate.getBestWpm(),
+                        aggregate.getSumAccuracy() / aggregate.getTotalTests()))
+                // No results in this bracket: nothing to rank
+                .orElseGet(() -> percentiles(duration, index + 1, Double.NaN, Double.NaN, Double.NaN));
+    }
+
+    private PercentileResponse percentiles(
+            Integer duration, int slot, double averageWpm, double bestWpm, double averageAccuracy) {
+        return PercentileResponse.builder()
+                .duration(duration)
+                .populationSize(wpm[slot].totalCount())
+                .averageWpm(round(averageWpm))
+                .averageWpmPercentile(percentile(wpm[slot], averageWpm))
+                .bestWpm(round(bestWpm))
+                .bestWpmPercentile(percentile(wpm[slot], bestWpm))
+                .averageAccuracy(round(averageAccuracy))
+                .averageAccuracyPercentile(percentile(accuracy[slot], averageAccuracy))
+                .build();
+    }
+
+    // Durations beyond every bracket only count towards the overall population
+    private int slotFor(int duration) {
+        return brackets.indexOf(duration) + 1;
+    }
+
+    private static Double percentile(FixedHistogram histogram, double value) {
+        return Double.isNaN(value) ? null : round(histogram.percentileOf(value));
+    }
+
+    private static Double round(double value) {
+        return Double.isNaN(value) ? null : Math.round(value * 100.0) / 100.0;
+    }
+}
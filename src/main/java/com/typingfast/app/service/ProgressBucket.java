@@ -0,0 +1,47 @@
+package com.typingfast.app.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Bucket sizes for the progress series; weeks start on Monday.
+ */
+enum ProgressBucket {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * @throws IllegalArgumentException for anything but day, week or month
+     */
+    static ProgressBucket parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("bucket must be day, week or month");
+        }
+    }
+
+    LocalDate start(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    // Range shown when the caller gives no start: 30 days, 26 weeks or 12 months ending at to
+    LocalDate defaultFrom(LocalDate to) {
+        return switch (this) {
+            case DAY -> to.minusDays(29);
+            case WEEK -> start(to).minusWeeks(25);
+            case MONTH -> start(to).minusMonths(11);
+        };
+    }
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
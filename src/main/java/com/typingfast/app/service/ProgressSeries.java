@@ -0,0 +1,151 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.ProgressPointResponse;
+import com.typingfast.app.repository.DailyRollup;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds daily rollups, oldest first, into buckets in a single pass.
+ * Each bucket is emitted as soon as the next one starts, updating a trailing
+ * moving average and the running sums of a least-squares fit on the way, so
+ * nothing is revisited and only the window is kept besides the output.
+ */
+final class ProgressSeries {
+
+    private final ProgressBucket bucket;
+    private final int window;
+
+    private final List<ProgressPointResponse> points = new ArrayList<>();
+    private int totalTests;
+
+    // Bucket being filled
+    private DailyRollup current;
+    private LocalDate currentStart;
+
+    // Ring of the last window buckets' totals, for the test-weighted moving average
+    private final int[] windowTests;
+    private final double[] windowWpm;
+    private final double[] windowAccuracy;
+    private int windowTestsSum;
+    private double windowWpmSum;
+    private double windowAccuracySum;
+
+    // Regression of bucket averages on days since the first bucket
+    private LocalDate origin;
+    private int n;
+    private double sumX;
+    private double sumXX;
+    private double sumWpm;
+    private double sumXWpm;
+    private double sumAccuracy;
+    private double sumXAccuracy;
+
+    ProgressSeries(ProgressBucket bucket, int window) {
+        this.bucket = bucket;
+        this.window = window;
+        this.windowTests = new int[window];
+        this.windowWpm = new double[window];
+        this.windowAccuracy = new double[window];
+    }
+
+    /**
+     * Add the next day; days must arrive in ascending order
+     */
+    void add(DailyRollup day) {
+        LocalDate start = bucket.start(day.day());
+        if (current != null && start.equals(currentStart)) {
+            current = current.plus(day);
+            return;
+        }
+        if (current != null) {
+            emit();
+        }
+        current = day;
+        currentStart = start;
+    }
+
+    /**
+     * Close the last bucket and return all of them; call once, after the last add
+     */
+    List<ProgressPointResponse> finish() {
+        if (current != null) {
+            emit();
+            current = null;
+        }
+        return points;
+    }
+
+    int totalTests() {
+        return totalTests;
+    }
+
+    Double wpmSlopePerDay() {
+        return slope(sumWpm, sumXWpm);
+    }
+
+    Double accuracySlopePerDay() {
+        return slope(sumAccuracy, sumXAccuracy);
+    }
+
+    private void emit() {
+        int tests = current.tests();
+        double averageWpm = current.sumWpm() / tests;
+        double averageAccuracy = current.sumAccuracy() / tests;
+        totalTests += tests;
+
+        int slot = points.size() % window;
+        windowTestsSum += tests - windowTests[slot];
+        windowWpmSum += current.sumWpm() - windowWpm[slot];
+        windowAccuracySum += current.sumAccuracy() - windowAccuracy[slot];
+        windowTests[slot] = tests;
+        windowWpm[slot] = current.sumWpm();
+        windowAccuracy[slot] = current.sumAccuracy();
+
+        if (origin == null) {
+            origin = currentStart;
+        }
+        double x = ChronoUnit.DAYS.between(origin, currentStart);
+        n++;
+        sumX += x;
+        sumXX += x * x;
+        sumWpm += averageWpm;
+        sumXWpm += x * averageWpm;
+        sumAccuracy += averageAccuracy;
+        sumXAccuracy += x * averageAccuracy;
+
+        points.add(ProgressPointResponse.builder()
+                .start(currentStart)
+                .tests(tests)
+                .averageWpm(round(averageWpm))
+                .wpmStdDev(round(stdDev(current.sumWpm(), current.sumSqWpm(), tests)))
+                .bestWpm(round(current.maxWpm()))
+                .averageAccuracy(round(averageAccuracy))
+                .accuracyStdDev(round(stdDev(current.sumAccuracy(), current.sumSqAccuracy(), tests)))
+                .bestAccuracy(round(current.maxAccuracy()))
+                .movingAverageWpm(round(windowWpmSum / windowTestsSum))
+                .movingAverageAccuracy(round(windowAccuracySum / windowTestsSum))
+                .build());
+    }
+
+    private Double slope(double sumY, double sumXY) {
+        double denominator = n * sumXX - sumX * sumX;
+        if (n < 2 || denominator == 0) {
+            return null;
+        }
+        return Math.round((n * sumXY - sumX * sumY) / denominator * 10000.0) / 10000.0;
+    }
+
+    // Population standard deviation from count, sum and sum of squares
+    private static double stdDev(double sum, double sumSq, int count) {
+        double mean = sum / count;
+        return Math.sqrt(Math.max(sumSq / count - mean * mean, 0));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.ProgressPointResponse;
+import com.typingfast.app.dto.ProgressResponse;
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.repository.DailyRollup;
+import com.typingfast.app.repository.DailyRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the daily_user_rollup table and builds the progress series from it.
+ */
+@Service
+public class ProgressService {
+
+    private static final Comparator<DailyRollup> BY_USER_AND_DAY =
+            Comparator.comparingLong(DailyRollup::userId).thenComparing(DailyRollup::day);
+
+    private final DailyRollupRepository dailyRollupRepository;
+    private final int maxDays;
+    private final int maxWindow;
+
+    public ProgressService(
+            DailyRollupRepository dailyRollupRepository,
+            @Value("${progress.max-days:1830}") int maxDays,
+            @Value("${progress.max-window:52}") int maxWindow) {
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.maxDays = maxDays;
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Add just-inserted results to their users' daily rows.
+     * Must run in the inserting transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyAll(List<TypingResult> results) {
+        // Keyed by (user, day) only: one upsert per pair, in key order like the other aggregates so batches cannot deadlock
+        Map<DailyRollup, DailyRollup> byDay = new TreeMap<>(BY_USER_AND_DAY);
+        for (TypingResult result : results) {
+            DailyRollup delta = DailyRollup.of(
+                    result.getUser().getId(),
+                    result.getCreatedAt().toLocalDate(),
+                    result.getWpm(),
+                    result.getAccuracy());
+            byDay.merge(delta, delta, DailyRollup::plus);
+        }
+        dailyRollupRepository.upsertAll(new ArrayList<>(byDay.values()));
+    }
+
+    /**
+     * WPM and accuracy per bucket between from and to (inclusive), read from the rollups only
+     *
+     * @throws IllegalArgumentException for an unknown bucket, a reversed or too long range, or a bad window
+     */
+    @Transactional(readOnly = true)
+    public ProgressResponse getProgress(Long userId, String bucketName, LocalDate from, LocalDate to, int window) {
+        ProgressBucket bucket = ProgressBucket.parse(bucketName);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : bucket.defaultFrom(end);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new IllegalArgumentException("Range is limited to " + maxDays + " days");
+        }
+        if (window < 1 || window > maxWindow) {
+            throw new IllegalArgumentException("window must be between 1 and " + maxWindow);
+        }
+
+        ProgressSeries series = new ProgressSeries(bucket, window);
+        dailyRollupRepository.forEachDay(userId, start, end, series::add);
+        List<ProgressPointResponse> points = series.finish();
+
+        return ProgressResponse.builder()
+                .bucket(bucket.label())
+                .from(start)
+                .to(end)
+                .window(window)
+                .points(points)
+                .totalTests(series.totalTests())
+                .wpmSlopePerDay(series.wpmSlopePerDay())
+                .accuracySlopePerDay(series.accuracySlopePerDay())
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.RacePlayerResponse;
+import com.typingfast.app.dto.RaceSnapshotResponse;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One race: a shared text and up to maxPlayers participants.
+ * State and membership are guarded by the room's monitor; progress fields are
+ * volatile so clients can report without taking the lock.
+ */
+final class RaceRoom {
+
+    enum State { WAITING, COUNTDOWN, RUNNING, FINISHED }
+
+    final String id;
+    // Quick-match bucket this room was opened for, null for rooms joined by code
+    final String matchKey;
+    final GeneratedText text;
+    final int shard;
+    final long openedAt;
+
+    private final List<Participant> participants = new ArrayList<>();
+    private int finishers;
+    private long startAt;
+
+    volatile State state = State.WAITING;
+    // Set whenever something a client would see changed since the last broadcast
+    volatile boolean dirty = true;
+
+    RaceRoom(String id, String matchKey, GeneratedText text, int shard, long openedAt) {
+        this.id = id;
+        this.matchKey = matchKey;
+        this.text = text;
+        this.shard = shard;
+        this.openedAt = openedAt;
+    }
+
+    static final class Participant {
+        final RaceRoom room;
+        final WebSocketSession session;
+        final Long userId;
+        final String username;
+
+        volatile int position;
+        volatile boolean finished;
+        volatile double wpm;
+        int place;
+
+        private Participant(RaceRoom room, WebSocketSession session, Long userId, String username) {
+            this.room = room;
+            this.session = session;
+            this.userId = userId;
+            this.username = username;
+        }
+    }
+
+    /**
+     * Add a participant while the room is still filling
+     *
+     * @return null if the room is full or no longer waiting
+     * @throws IllegalArgumentException if the user is already in this room
+     */
+    synchronized Participant add(WebSocketSession session, Long userId, String username, int maxPlayers) {
+        if (state != State.WAITING || participants.size() >= maxPlayers) {
+            return null;
+        }
+        for (Participant participant : participants) {
+            if (participant.userId.equals(userId)) {
+                throw new IllegalArgumentException("You are already in this race");
+            }
+        }
+        Participant participant = new Participant(this, session, userId, username);
+        participants.add(participant);
+        dirty = true;
+        return participant;
+    }
+
+    /**
+     * Remove a participant; an emptied room is finished so no one can join it
+     *
+     * @return true if the room is now empty
+     */
+    synchronized boolean remove(Participant participant) {
+        if (participants.remove(participant)) {
+            dirty = true;
+        }
+        if (participants.isEmpty()) {
+            state = State.FINISHED;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a finish and return the place, or 0 if the race is not running
+     */
+    synchronized int finish(Participant participant, int position, double wpm) {
+        if (state != State.RUNNING || participant.finished || !participants.contains(participant)) {
+            return 0;
+        }
+        participant.position = position;
+        participant.wpm = wpm;
+        participant.finished = true;
+        participant.place = ++finishers;
+        dirty = true;
+        return participant.place;
+    }
+
+    synchronized int size() {
+        return participants.size();
+    }
+
+    synchronized long startAt() {
+        return startAt;
+    }
+
+    synchronized void startCountdown(long startAt) {
+        this.startAt = startAt;
+        state = State.COUNTDOWN;
+        dirty = true;
+    }
+
+    synchronized void start() {
+        state = State.RUNNING;
+        dirty = true;
+    }
+
+    synchronized boolean everyoneFinished() {
+        for (Participant participant : participants) {
+            if (!participant.finished) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized void end() {
+        state = State.FINISHED;
+        dirty = true;
+    }
+
+    synchronized List<Participant> participants() {
+        return List.copyOf(participants);
+    }
+
+    /**
+     * Capture what clients see; live WPM for unfinished players comes from their position
+     */
+    synchronized RaceSnapshotResponse snapshot(long now) {
+        double minutes = state == State.RUNNING || state == State.FINISHED
+                ? Math.max(now - startAt, 1) / 60000.0
+                : 0;
+        List<RacePlayerResponse> players = new ArrayList<>(participants.size());
+        for (Participant participant : participants) {
+            double wpm = participant.finished
+                    ? participant.wpm
+                    : minutes > 0 ? participant.position / 5.0 / minutes : 0;
+            players.add(RacePlayerResponse.builder()
+                    .username(participant.username)
+                    .position(participant.position)
+                    .wpm(Math.round(wpm * 10.0) / 10.0)
+                    .finished(participant.finished)
+                    .place(participant.finished ? participant.place : null)
+                    .build());
+        }
+        return RaceSnapshotResponse.builder()
+                .room(id)
+                .state(state.name().toLowerCase(Locale.ROOT))
+                .startAt(startAt)
+                .serverTime(now)
+                .length(text.text().length())
+                .players(players)
+                .build();
+    }
+}
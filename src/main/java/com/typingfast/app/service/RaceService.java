@@ -0,0 +1,457 @@
+package com.typingfast.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typingfast.app.config.AuthenticatedUser;
+import com.typingfast.app.dto.ScoringMode;
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.entity.User;
+import com.typingfast.app.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Multiplayer races over WebSocket.
+ *
+ * Progress reports only overwrite the participant's position. Rooms are
+ * split into shards, each advanced by its own fixed-rate tick that broadcasts
+ * one snapshot per changed room, so outgoing traffic is bounded by
+ * rooms x tick rate no matter how often clients report.
+ */
+@Service
+public class RaceService {
+
+    private static final Logger log = LoggerFactory.getLogger(RaceService.class);
+
+    private static final Pattern ROOM_CODE = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final TypingTextService textService;
+    private final TypingAnalysisService analysisService;
+    private final TypingResultService typingResultService;
+    private final LeaderboardService leaderboardService;
+    private final PercentileService percentileService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    private final int defaultWords;
+    private final int maxPlayers;
+    private final int maxRooms;
+    private final long fillMillis;
+    private final long countdownMillis;
+    private final long maxDurationMillis;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferBytes;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Map<String, RaceRoom> rooms = new ConcurrentHashMap<>();
+    // Quick-match room currently filling, per word count and corpus
+    private final Map<String, RaceRoom> openRooms = new ConcurrentHashMap<>();
+    private final List<Map<String, RaceRoom>> shards;
+    private final ScheduledExecutorService ticker;
+
+    public RaceService(
+            TypingTextService textService,
+            TypingAnalysisService analysisService,
+            TypingResultService typingResultService,
+            LeaderboardService leaderboardService,
+            PercentileService percentileService,
+            UserRepository userRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${race.words:30}") int defaultWords,
+            @Value("${race.max-players:4}") int maxPlayers,
+            @Value("${race.max-rooms:10000}") int maxRooms,
+            @Value("${race.fill-ms:5000}") long fillMillis,
+            @Value("${race.countdown-ms:3000}") long countdownMillis,
+            @Value("${race.max-duration-ms:300000}") long maxDurationMillis,
+            @Value("${race.tick-ms:50}") long tickMillis,
+            @Value("${race.tick-threads:2}") int tickThreads,
+            @Value("${race.send-time-limit-ms:2000}") int sendTimeLimitMillis,
+            @Value("${race.send-buffer-bytes:65536}") int sendBufferBytes) {
+        this.textService = textService;
+        this.analysisService = analysisService;
+        this.typingResultService = typingResultService;
+        this.leaderboardService = leaderboardService;
+        this.percentileService = percentileService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.defaultWords = defaultWords;
+        this.maxPlayers = maxPlayers;
+        this.maxRooms = maxRooms;
+        this.fillMillis = fillMillis;
+        this.countdownMillis = countdownMillis;
+        this.maxDurationMillis = maxDurationMillis;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferBytes = sendBufferBytes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.ticker = Executors.newScheduledThreadPool(tickThreads, runnable -> {
+            Thread thread = new Thread(runnable, "race-tick-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shards = new ArrayList<>(tickThreads);
+        for (int i = 0; i < tickThreads; i++) {
+            shards.add(new ConcurrentHashMap<>());
+        }
+        for (Map<String, RaceRoom> shard : shards) {
+            ticker.scheduleAtFixedRate(() -> tick(shard), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+
+        Gauge.builder("race.rooms", rooms, Map::size)
+                .description("Race rooms waiting, counting down or running")
+                .register(meterRegistry);
+        Gauge.builder("race.connections", connections, Map::size)
+                .description("Open race WebSocket connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A WebSocket connection; it is in at most one race at a time
+     */
+    private static final class Connection {
+        final WebSocketSession session;
+        final AuthenticatedUser user;
+        volatile RaceRoom.Participant participant;
+
+        Connection(WebSocketSession session, AuthenticatedUser user) {
+            this.session = session;
+            this.user = user;
+        }
+    }
+
+    public void open(WebSocketSession session, AuthenticatedUser user) {
+        // Tick threads and the connection's own thread both send; the decorator
+        // serialises them and drops the oldest buffered snapshots for slow clients
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMillis, sendBufferBytes,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        connections.put(session.getId(), new Connection(decorated, user));
+    }
+
+    public void close(String sessionId) {
+        Connection connection = connections.remove(sessionId);
+        if (connection != null) {
+            leave(connection);
+        }
+    }
+
+    /**
+     * Join a room by code, creating it if needed, or the open quick-match room
+     *
+     * @param roomCode room to join, or null for quick match
+     * @param words word count for a new room, or null for the default
+     * @param corpus corpus for a new room, or null for the default
+     */
+    public void join(String sessionId, String roomCode, Integer words, String corpus) {
+        Connection connection = connection(sessionId);
+        if (roomCode != null && !ROOM_CODE.matcher(roomCode).matches()) {
+            throw new IllegalArgumentException("Room codes are 1-32 letters, digits, '-' or '_'");
+        }
+        int wordCount = words == null ? defaultWords : words;
+        leave(connection);
+
+        RaceRoom.Participant participant = roomCode == null
+                ? quickMatch(connection, wordCount, corpus)
+                : joinByCode(connection, roomCode, wordCount, corpus);
+        connection.participant = participant;
+
+        RaceRoom room = participant.room;
+        Map<String, Object> joined = new LinkedHashMap<>();
+        joined.put("type", "joined");
+        joined.put("room", room.id);
+        joined.put("text", room.text.text());
+        joined.put("seed", String.valueOf(room.text.seed()));
+        joined.put("corpus", room.text.corpus());
+        joined.put("maxPlayers", maxPlayers);
+        send(connection.session, joined);
+    }
+
+    /**
+     * Record how far the client has typed; only the latest value is broadcast
+     */
+    public void progress(String sessionId, int position) {
+        RaceRoom.Participant participant = connection(sessionId).participant;
+        if (participant == null || participant.finished || participant.room.state != RaceRoom.State.RUNNING) {
+            return;
+        }
+        int clamped = Math.max(0, Math.min(position, participant.room.text.text().length()));
+        if (clamped != participant.position) {
+            participant.position = clamped;
+            participant.room.dirty = true;
+        }
+    }
+
+    /**
+     * Score the typed text against the room's text and persist it like a solo result
+     */
+    public void finish(String sessionId, String typedText) {
+        Connection connection = connection(sessionId);
+        RaceRoom.Participant participant = connection.participant;
+        if (participant == null) {
+            throw new IllegalArgumentException("Not in a race");
+        }
+        RaceRoom room = participant.room;
+        if (room.state != RaceRoom.State.RUNNING) {
+            throw new IllegalArgumentException("Race is not running");
+        }
+
+        String original = room.text.text();
+        int elapsedMillis = (int) Math.max(1, System.currentTimeMillis() - room.startAt());
+        TypingScore score = analysisService.score(original, typedText, ScoringMode.POSITION);
+        double accuracy = analysisService.calculateAccuracy(score.correctChars(), score.totalTyped());
+        double wpm = analysisService.calculateWpmMillis(score.correctChars(), elapsedMillis);
+        if (!analysisService.isPlausibleWpm(wpm)) {
+            throw new IllegalArgumentException("Result is faster than anyone can type");
+        }
+
+        int place = room.finish(participant, Math.min(typedText.length(), original.length()), wpm);
+        if (place == 0) {
+            throw new IllegalArgumentException("Race is not running");
+        }
+        record(connection.user, original, score, elapsedMillis, wpm, accuracy);
+
+        Map<String, Object> finished = new LinkedHashMap<>();
+        finished.put("type", "finished");
+        finished.put("room", room.id);
+        finished.put("place", place);
+        finished.put("wpm", wpm);
+        finished.put("accuracy", accuracy);
+        finished.put("errors", score.errors());
+        send(connection.session, finished);
+    }
+
+    public void leave(String sessionId) {
+        leave(connection(sessionId));
+    }
+
+    public void sendError(String sessionId, String message) {
+        Connection connection = connections.get(sessionId);
+        if (connection != null) {
+            send(connection.session, Map.of("type", "error", "message", message));
+        }
+    }
+
+    private Connection connection(String sessionId) {
+        Connection connection = connections.get(sessionId);
+        if (connection == null) {
+            throw new IllegalArgumentException("Connection is closed");
+        }
+        return connection;
+    }
+
+    private RaceRoom.Participant quickMatch(Connection connection, int wordCount, String corpus) {
+        String matchKey = wordCount + ":" + (corpus == null ? "" : corpus);
+        while (true) {
+            RaceRoom room = openRooms.computeIfAbsent(matchKey,
+                    key -> register(newRoom(randomRoomId(), key, wordCount, corpus)));
+            RaceRoom.Participant participant = add(room, connection);
+            if (participant != null) {
+                return participant;
+            }
+            // Filled up or started since we looked; open another
+            openRooms.remove(matchKey, room);
+        }
+    }
+
+    private RaceRoom.Participant joinByCode(Connection connection, String code, int wordCount, String corpus) {
+        while (true) {
+            RaceRoom room = rooms.get(code);
+            if (room == null) {
+                RaceRoom created = newRoom(code, null, wordCount, corpus);
+                room = rooms.putIfAbsent(code, created);
+                if (room == null) {
+                    room = created;
+                    shards.get(room.shard).put(room.id, room);
+                }
+            }
+            RaceRoom.Participant participant = add(room, connection);
+            if (participant != null) {
+                return participant;
+            }
+            if (room.state != RaceRoom.State.FINISHED) {
+                throw new IllegalArgumentException("Room " + code + " is full or has already started");
+            }
+            // Ended but not yet cleaned up by its tick; the code is free again
+            unregister(room);
+        }
+    }
+
+    private RaceRoom.Participant add(RaceRoom room, Connection connection) {
+        return room.add(connection.session, connection.user.getId(), connection.user.getUsername(), maxPlayers);
+    }
+
+    private RaceRoom newRoom(String id, String matchKey, int wordCount, String corpus) {
+        if (rooms.size() >= maxRooms) {
+            throw new IllegalArgumentException("Too many races in progress, try again shortly");
+        }
+        GeneratedText text = textService.generatedText(wordCount, corpus);
+        return new RaceRoom(id, matchKey, text, Math.floorMod(id.hashCode(), shards.size()), System.currentTimeMillis());
+    }
+
+    private RaceRoom register(RaceRoom room) {
+        rooms.put(room.id, room);
+        shards.get(room.shard).put(room.id, room);
+        return room;
+    }
+
+    private void unregister(RaceRoom room) {
+        rooms.remove(room.id, room);
+        shards.get(room.shard).remove(room.id, room);
+        if (room.matchKey != null) {
+            openRooms.remove(room.matchKey, room);
+        }
+    }
+
+    private void leave(Connection connection) {
+        RaceRoom.Participant participant = connection.participant;
+        if (participant == null) {
+            return;
+        }
+        connection.participant = null;
+        if (participant.room.remove(participant)) {
+            unregister(participant.room);
+        }
+    }
+
+    private void tick(Map<String, RaceRoom> shard) {
+        long now = System.currentTimeMillis();
+        for (RaceRoom room : shard.values()) {
+            try {
+                advance(room, now);
+            } catch (RuntimeException e) {
+                log.warn("Race tick failed for room {}", room.id, e);
+            }
+        }
+    }
+
+    private void advance(RaceRoom room, long now) {
+        switch (room.state) {
+            case WAITING -> {
+                if (room.size() >= maxPlayers || now - room.openedAt >= fillMillis) {
+                    room.startCountdown(now + countdownMillis);
+                    if (room.matchKey != null) {
+                        openRooms.remove(room.matchKey, room);
+                    }
+                }
+            }
+            case COUNTDOWN -> {
+                if (now >= room.startAt()) {
+                    room.start();
+                }
+            }
+            case RUNNING -> {
+                if (room.everyoneFinished() || now - room.startAt() >= maxDurationMillis) {
+                    room.end();
+                    broadcast(room, now);
+                    unregister(room);
+                    return;
+                }
+            }
+            case FINISHED -> {
+                unregister(room);
+                return;
+            }
+        }
+        if (room.dirty) {
+            broadcast(room, now);
+        }
+    }
+
+    private void broadcast(RaceRoom room, long now) {
+        // Clear before capturing so a report landing mid-snapshot marks the room again
+        room.dirty = false;
+        // Snapshots go out as binary frames of UTF-8 JSON: encoded once here instead
+        // of once per recipient, which is what sending the same text frame costs
+        byte[] snapshot;
+        try {
+            snapshot = objectMapper.writeValueAsBytes(room.snapshot(now));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        for (RaceRoom.Participant participant : room.participants()) {
+            send(participant.session, new BinaryMessage(ByteBuffer.wrap(snapshot)));
+        }
+    }
+
+    private void send(WebSocketSession session, Object payload) {
+        try {
+            send(session, new TextMessage(objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void send(WebSocketSession session, WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(message);
+        } catch (IOException | IllegalStateException e) {
+            // Closed mid-send or past the send time limit; close() cleans up
+            log.debug("Race send to {} failed: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void record(AuthenticatedUser principal, String original, TypingScore score,
+                        int elapsedMillis, double wpm, double accuracy) {
+        int duration = Math.max(1, (elapsedMillis + 999) / 1000);
+        User user = userRepository.getReferenceById(principal.getId());
+        TypingResult result = TypingResult.builder()
+                .user(user)
+                .duration(duration)
+                .durationMillis(elapsedMillis)
+                .totalChars(score.totalTyped())
+                .correctChars(score.correctChars())
+                .errors(score.errors())
+                .wpm(wpm)
+                .accuracy(accuracy)
+                .keyStats(analysisService.keyStats(original, score))
+                .build();
+
+        try {
+            typingResultService.record(result, () -> {
+                leaderboardService.recordResult(principal.getId(), principal.getUsername(), duration, wpm);
+                percentileService.recordResult(duration, wpm, accuracy);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A token can outlive its user, and then the insert fails on the foreign key
+            log.debug("Not saving race result for deleted user {}", principal.getId());
+        }
+    }
+
+    private static String randomRoomId() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+}
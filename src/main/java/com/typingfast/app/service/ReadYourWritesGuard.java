@@ -0,0 +1,36 @@
+package com.typingfast.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users wrote a result in the last few seconds, so their reads
+ * can skip the read replica until replication has caught up with the write.
+ */
+@Service
+public class ReadYourWritesGuard {
+
+    // Users evicted early just go back to the replica a little sooner
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesGuard(@Value("${datasource.replica.read-your-writes-ms:5000}") long windowMillis) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMillis))
+                .maximumSize(MAX_TRACKED_USERS)
+                .build();
+    }
+
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+}
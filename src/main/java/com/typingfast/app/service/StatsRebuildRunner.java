@@ -0,0 +1,26 @@
+package com.typingfast.app.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciles user_stats against typing_results at startup.
+ * Enable with STATS_REBUILD_ON_STARTUP=true (or --stats.rebuild-on-startup=true).
+ */
+@Component
+@ConditionalOnProperty(name = "stats.rebuild-on-startup", havingValue = "true")
+public class StatsRebuildRunner implements ApplicationRunner {
+
+    private final UserStatsService userStatsService;
+
+    public StatsRebuildRunner(UserStatsService userStatsService) {
+        this.userStatsService = userStatsService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        userStatsService.rebuildAll();
+    }
+}
@@ -0,0 +1,90 @@
+package com.typingfast.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Ring buffers of ready-made texts for the most requested lengths.
+ * Requests take from the buffer without blocking; once a buffer drops below
+ * half full a single background thread tops it up again.
+ */
+class TextPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TextPool.class);
+
+    private final Map<Integer, BlockingQueue<GeneratedText>> buffers = new HashMap<>();
+    private final int capacity;
+    private final IntFunction<GeneratedText> generator;
+    private final ExecutorService refiller;
+    private final AtomicBoolean refillScheduled = new AtomicBoolean();
+
+    TextPool(int[] wordCounts, int capacity, IntFunction<GeneratedText> generator) {
+        this.capacity = capacity;
+        this.generator = generator;
+        for (int wordCount : wordCounts) {
+            buffers.put(wordCount, new ArrayBlockingQueue<>(capacity));
+        }
+        this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "text-pool-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleRefill();
+    }
+
+    /**
+     * A pooled text of this length, or null if the length isn't pooled or the buffer ran dry
+     */
+    GeneratedText poll(int wordCount) {
+        BlockingQueue<GeneratedText> buffer = buffers.get(wordCount);
+        if (buffer == null) {
+            return null;
+        }
+        GeneratedText text = buffer.poll();
+        if (buffer.size() < capacity / 2) {
+            scheduleRefill();
+        }
+        return text;
+    }
+
+    int size() {
+        return buffers.values().stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void scheduleRefill() {
+        if (refillScheduled.compareAndSet(false, true)) {
+            try {
+                refiller.execute(this::refill);
+            } catch (RuntimeException e) {
+                refillScheduled.set(false);
+                log.debug("Text pool refill not scheduled", e);
+            }
+        }
+    }
+
+    private void refill() {
+        try {
+            buffers.forEach((wordCount, buffer) -> {
+                while (buffer.remainingCapacity() > 0 && buffer.offer(generator.apply(wordCount))) {
+                    // keep filling
+                }
+            });
+        } finally {
+            refillScheduled.set(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        refiller.shutdownNow();
+    }
+}
@@ -1,9 +1,22 @@
 package com.typingfast.app.service;
 
+import com.typingfast.app.dto.ScoringMode;
+import com.typingfast.app.entity.UserKeyStats;
 import org.springframework.stereotype.Service;
 
+import java.util.BitSet;
+
 @Service
 public class TypingAnalysisService {
+
+    // Alignment memory grows with typed length times the band, so typed text may
+    // overrun the original by insertions, but by no more than this
+    static final int MAX_TYPED_RATIO = 2;
+    static final int MAX_TYPED_SLACK = 64;
+
+    // Beyond any recorded human speed; also the top of the percentile histograms
+    static final double MAX_WPM = 300.0;
+
     public int calculateErrors(String original,String typed) {
         int errors = 0;
         int minLength = Math.min(original.length(), typed.length());
@@ -18,15 +31,106 @@ public class TypingAnalysisService {
         return errors;
     }
 
+    /**
+     * Edit-distance alignment of the typed text against the original, by code point
+     */
+    public Alignment align(String original, String typed) {
+        return BitParallelAligner.align(original, typed);
+    }
+
+    /**
+     * Score a submission and record which characters of the original went wrong
+     *
+     * @throws IllegalArgumentException if alignment is asked for typed text far longer than the original
+     */
+    public TypingScore score(String original, String typed, ScoringMode mode) {
+        BitSet errorPositions = new BitSet();
+        if (mode == ScoringMode.ALIGNMENT) {
+            if (typed.length() > (long) original.length() * MAX_TYPED_RATIO + MAX_TYPED_SLACK) {
+                throw new IllegalArgumentException("Typed text is far longer than the original");
+            }
+            Alignment alignment = BitParallelAligner.align(original, typed, errorPositions);
+            return new TypingScore(
+                    alignment.matches() + alignment.substitutions() + alignment.insertions(),
+                    alignment.errors(),
+                    alignment.matches(),
+                    alignment.matches() + alignment.substitutions() + alignment.deletions(),
+                    errorPositions,
+                    alignment);
+        }
+
+        int totalTyped = typed.length();
+        int errors = calculateErrors(original, typed);
+        int compared = Math.min(original.length(), totalTyped);
+        // Position scoring compares chars; key stats are kept per code point
+        int attempted = 0;
+        for (int i = 0; i < compared; attempted++) {
+            int end = Math.min(i + Character.charCount(original.codePointAt(i)), compared);
+            for (; i < end; i++) {
+                if (original.charAt(i) != typed.charAt(i)) {
+                    errorPositions.set(attempted);
+                }
+            }
+        }
+        return new TypingScore(totalTyped, errors, Math.max(totalTyped - errors, 0),
+                attempted, errorPositions, null);
+    }
+
+    /**
+     * Per-key and per-bigram hit and error counts for the attempted part of
+     * the original, in the {@link UserKeyStats} layout. A character counts as
+     * an error for its own key and for the bigram it completes.
+     */
+    public int[] keyStats(String original, TypingScore score) {
+        int[] counts = new int[UserKeyStats.SIZE];
+        BitSet errors = score.errorPositions();
+        int previous = -1;
+        for (int position = 0, i = 0; position < score.attempted() && i < original.length(); position++) {
+            int codePoint = original.codePointAt(i);
+            i += Character.charCount(codePoint);
+            boolean error = errors.get(position);
+
+            int key = UserKeyStats.keyIndex(codePoint);
+            if (key >= 0) {
+                counts[UserKeyStats.KEY_HITS + key]++;
+                if (error) {
+                    counts[UserKeyStats.KEY_ERRORS + key]++;
+                }
+            }
+
+            int symbol = UserKeyStats.bigramSymbol(codePoint);
+            if (previous >= 0 && symbol >= 0) {
+                int bigram = previous * UserKeyStats.BIGRAM_SYMBOLS + symbol;
+                counts[UserKeyStats.BIGRAM_HITS + bigram]++;
+                if (error) {
+                    counts[UserKeyStats.BIGRAM_ERRORS + bigram]++;
+                }
+            }
+            previous = symbol;
+        }
+        return counts;
+    }
+
     public double calculateAccuracy(int correctChars, int totalTyped) {
         if(totalTyped == 0) return 0;
         return (double) correctChars / totalTyped * 100;
     }
 
+    /**
+     * Whether a WPM can be ranked: finite, non-negative and humanly possible.
+     * Anything else is refused before it reaches a leaderboard or histogram.
+     */
+    public boolean isPlausibleWpm(double wpm) {
+        return wpm >= 0 && wpm <= MAX_WPM;
+    }
+
     public double calculateWpm(int correctChars, int durationSeconds) {
         double minutes = durationSeconds / 60.0;
         return (correctChars/5.0) / minutes;
     }
 
-
+    public double calculateWpmMillis(int correctChars, int durationMillis) {
+        double minutes = durationMillis / 60000.0;
+        return (correctChars/5.0) / minutes;
+    }
 }
@@ -0,0 +1,176 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.repository.KeystrokeRepository;
+import com.typingfast.app.repository.TypingResultBatchRepository;
+import com.typingfast.app.repository.TypingResultRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Persists typing results together with the aggregates derived from them.
+ * With typing.write-behind.enabled=true results are queued and inserted in
+ * JDBC batches by a background thread instead of one insert per request.
+ */
+@Service
+public class TypingResultService {
+
+    private static final Logger log = LoggerFactory.getLogger(TypingResultService.class);
+
+    // A result and the in-memory updates to make once it has committed
+    private record Pending(TypingResult result, Runnable onCommit) {
+    }
+
+    private final TypingResultRepository typingResultRepository;
+    private final TypingResultBatchRepository typingResultBatchRepository;
+    private final UserStatsService userStatsService;
+    private final KeyStatsService keyStatsService;
+    private final ProgressService progressService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final DataVersionService dataVersionService;
+    private final KeystrokeRepository keystrokeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final WriteBehindQueue<Pending> writeBehind;
+    private final Counter callerRunsCounter;
+    private final DistributionSummary wpmSummary;
+    private final DistributionSummary accuracySummary;
+
+    public TypingResultService(
+            TypingResultRepository typingResultRepository,
+            TypingResultBatchRepository typingResultBatchRepository,
+            UserStatsService userStatsService,
+            KeyStatsService keyStatsService,
+            ProgressService progressService,
+            ReadYourWritesGuard readYourWritesGuard,
+            DataVersionService dataVersionService,
+            KeystrokeRepository keystrokeRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${typing.write-behind.enabled:false}") boolean writeBehindEnabled,
+            @Value("${typing.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${typing.write-behind.batch-size:200}") int batchSize,
+            @Value("${typing.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${typing.write-behind.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.typingResultRepository = typingResultRepository;
+        this.typingResultBatchRepository = typingResultBatchRepository;
+        this.userStatsService = userStatsService;
+        this.keyStatsService = keyStatsService;
+        this.progressService = progressService;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.dataVersionService = dataVersionService;
+        this.keystrokeRepository = keystrokeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wpmSummary = DistributionSummary.builder("typing.result.wpm")
+                .description("WPM of recorded results")
+                .baseUnit("wpm")
+                .serviceLevelObjectives(20, 30, 40, 50, 60, 70, 80, 90, 100, 120, 150, 200)
+                .register(meterRegistry);
+        this.accuracySummary = DistributionSummary.builder("typing.result.accuracy")
+                .description("Accuracy of recorded results")
+                .baseUnit("percent")
+                .serviceLevelObjectives(50, 80, 90, 95, 97, 98, 99, 100)
+                .register(meterRegistry);
+
+        if (writeBehindEnabled) {
+            this.writeBehind = new WriteBehindQueue<>(
+                    "typing-write-behind",
+                    queueCapacity,
+                    batchSize,
+                    flushIntervalMillis,
+                    offerTimeoutMillis,
+                    this::recordBatch);
+            Gauge.builder("typing.write_behind.queue.size", writeBehind, WriteBehindQueue::size)
+                    .description("Typing results waiting to be flushed")
+                    .register(meterRegistry);
+            FunctionCounter.builder("typing.write_behind.dropped", writeBehind, WriteBehindQueue::dropped)
+                    .description("Queued results that could not be persisted and were dropped")
+                    .register(meterRegistry);
+            this.callerRunsCounter = Counter.builder("typing.write_behind.caller_runs")
+                    .description("Results flushed on the request thread because the queue was full")
+                    .register(meterRegistry);
+        } else {
+            this.writeBehind = null;
+            this.callerRunsCounter = null;
+        }
+    }
+
+    /**
+     * Persist a result, either immediately or through the write-behind queue,
+     * and run onCommit once it has committed, so in-memory rankings updated
+     * there only ever reflect persisted rows
+     */
+    public void record(TypingResult result, Runnable onCommit) {
+        wpmSummary.record(result.getWpm());
+        accuracySummary.record(result.getAccuracy());
+        Pending pending = new Pending(result, onCommit);
+        if (writeBehind == null) {
+            transactionTemplate.executeWithoutResult(status -> {
+                TypingResult saved = typingResultRepository.save(result);
+                userStatsService.applyAll(List.of(saved));
+                keyStatsService.applyAll(List.of(saved));
+                progressService.applyAll(List.of(saved));
+                keystrokeRepository.insertAll(List.of(saved));
+            });
+            committed(pending);
+            return;
+        }
+
+        // Stamp the submit time now rather than when the batch is flushed
+        result.onCreate();
+        if (!writeBehind.submit(pending)) {
+            callerRunsCounter.increment();
+        }
+    }
+
+    /**
+     * Insert a batch of results and update the affected users' stats in one transaction
+     */
+    private void recordBatch(List<Pending> batch) {
+        List<TypingResult> results = batch.stream().map(Pending::result).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            typingResultBatchRepository.insertAll(results);
+            userStatsService.applyAll(results);
+            keyStatsService.applyAll(results);
+            progressService.applyAll(results);
+            keystrokeRepository.insertAll(results);
+        });
+        for (Pending pending : batch) {
+            committed(pending);
+        }
+    }
+
+    // Only after the commit, so the read-your-writes window covers replication lag rather
+    // than the flush delay, and a tag is never paired with data older than its version.
+    // Reads are pinned to the primary before the new version can be seen.
+    private void committed(Pending pending) {
+        Long userId = pending.result().getUser().getId();
+        readYourWritesGuard.recordWrite(userId);
+        dataVersionService.bump(userId);
+        try {
+            pending.onCommit().run();
+        } catch (RuntimeException e) {
+            // The row is saved; failing here would make the write-behind queue insert it again
+            log.error("In-memory update after saving a result for user {} failed", userId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.typingfast.app.service;
+
+import java.util.BitSet;
+
+/**
+ * Outcome of scoring one submission.
+ *
+ * @param attempted      leading code points of the original the user got through
+ * @param errorPositions code point positions in the original that were typed wrong or skipped
+ * @param alignment      edit breakdown, only with alignment scoring
+ */
+public record TypingScore(
+        int totalTyped,
+        int errors,
+        int correctChars,
+        int attempted,
+        BitSet errorPositions,
+        Alignment alignment) {
+}
@@ -0,0 +1,8 @@
+package com.typingfast.app.service;
+
+/**
+ * A practice text handed out by /api/typing/text: enough to regenerate the
+ * text on submit, plus the server time it was issued.
+ */
+public record TypingSession(long seed, int wordCount, String corpus, long issuedAt) {
+}
@@ -0,0 +1,156 @@
+package com.typingfast.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Issues and verifies typing session ids.
+ * An id is the URL-safe Base64 of (version, seed, wordCount, issuedAt, corpus)
+ * followed by a truncated HMAC-SHA256 of those bytes, so nothing is stored per
+ * session and a client can neither pick its own text nor move its start time.
+ */
+@Service
+public class TypingSessionService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    // Kept apart from JWT signatures even when both use the same secret
+    private static final byte[] CONTEXT = "typingfast-session".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_BYTES = 1 + Long.BYTES + Integer.BYTES + Long.BYTES + 1;
+    private static final int TAG_BYTES = 16;
+
+    private final SecretKeySpec key;
+    private final long maxAgeMillis;
+    private final boolean checkElapsed;
+    private final long maxIdleMillis;
+
+    public TypingSessionService(
+            @Value("${typing.session.secret:${jwt.secret}}") String secret,
+            @Value("${typing.session.max-age:1h}") Duration maxAge,
+            @Value("${typing.session.check-elapsed:true}") boolean checkElapsed,
+            @Value("${typing.session.max-idle:5m}") Duration maxIdle) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.maxAgeMillis = maxAge.toMillis();
+        this.checkElapsed = checkElapsed;
+        this.maxIdleMillis = maxIdle.toMillis();
+    }
+
+    /**
+     * A session id for this text, issued now
+     */
+    public String issue(GeneratedText text) {
+        return issue(text, System.currentTimeMillis());
+    }
+
+    String issue(GeneratedText text, long now) {
+        // The default corpus is left out to keep the common id short
+        byte[] corpus = CorpusRegistry.DEFAULT_CORPUS.equals(text.corpus())
+                ? new byte[0]
+                : text.corpus().getBytes(StandardCharsets.UTF_8);
+        if (corpus.length > 255) {
+            throw new IllegalArgumentException("Corpus id is too long");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + corpus.length + TAG_BYTES)
+                .put(VERSION)
+                .putLong(text.seed())
+                .putInt(text.wordCount())
+                .putLong(now)
+                .put((byte) corpus.length)
+                .put(corpus);
+        byte[] bytes = buffer.array();
+        buffer.put(tag(bytes, bytes.length - TAG_BYTES));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Verify a session id and return what it was issued for
+     *
+     * @throws IllegalArgumentException if the id is malformed, forged or expired
+     */
+    public TypingSession open(String sessionId) {
+        return open(sessionId, System.currentTimeMillis());
+    }
+
+    TypingSession open(String sessionId, long now) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(sessionId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid typing session", e);
+        }
+        if (bytes.length < HEADER_BYTES + TAG_BYTES || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Invalid typing session");
+        }
+
+        int signed = bytes.length - TAG_BYTES;
+        if (!MessageDigest.isEqual(tag(bytes, signed), Arrays.copyOfRange(bytes, signed, bytes.length))) {
+            throw new IllegalArgumentException("Invalid typing session");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, signed - 1);
+        long seed = buffer.getLong();
+        int wordCount = buffer.getInt();
+        long issuedAt = buffer.getLong();
+        int corpusLength = buffer.get() & 0xFF;
+        if (corpusLength != buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid typing session");
+        }
+        String corpus = corpusLength == 0
+                ? CorpusRegistry.DEFAULT_CORPUS
+                : new String(bytes, HEADER_BYTES, corpusLength, StandardCharsets.UTF_8);
+
+        if (issuedAt > now || now - issuedAt > maxAgeMillis) {
+            throw new IllegalArgumentException("Typing session has expired, load a new text");
+        }
+        return new TypingSession(seed, wordCount, corpus, issuedAt);
+    }
+
+    /**
+     * Reject a reported test length the server clock does not back up: typing
+     * can't have taken longer than the session has existed, and the rest of
+     * that time (reading the text before starting) is bounded by max-idle, so
+     * a client can't claim a few seconds for a text it spent minutes on
+     *
+     * @throws IllegalArgumentException if durationMillis exceeds the time since
+     *                                  issue, or falls short of it by more than max-idle
+     */
+    public void checkDuration(TypingSession session, long durationMillis) {
+        checkDuration(session, durationMillis, System.currentTimeMillis());
+    }
+
+    void checkDuration(TypingSession session, long durationMillis, long now) {
+        if (!checkElapsed) {
+            return;
+        }
+        long elapsed = now - session.issuedAt();
+        if (durationMillis > elapsed) {
+            throw new IllegalArgumentException("Duration is longer than the typing session");
+        }
+        if (elapsed - durationMillis > maxIdleMillis) {
+            throw new IllegalArgumentException("Typing session was idle too long, load a new text");
+        }
+    }
+
+    private byte[] tag(byte[] bytes, int length) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(CONTEXT);
+            mac.update(bytes, 0, length);
+            return Arrays.copyOf(mac.doFinal(), TAG_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
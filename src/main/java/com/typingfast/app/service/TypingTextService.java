@@ -1,21 +1,111 @@
 package com.typingfast.app.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class TypingTextService {
-    private static final List<String> WORDS =  List.of(
-            "java", "spring", "boot", "typing", "keyboard", "developer", "backend", "frontend", "api", "database", "mysql", "security", "performance", "accuracy", "speed", "session", "request", "response", "controller", "service", "repository", "model", "entity", "mapping", "config", "filter", "token", "auth", "login", "user", "profile", "score", "timer", "streak", "input", "output", "client", "server", "json", "rest", "http", "status", "error", "valid", "logic", "code", "syntax", "array", "string", "object", "class", "method", "variable", "stream", "lambda", "async", "thread", "memory", "cache", "query", "index", "join", "table", "schema", "test", "junit", "mock", "build", "maven", "gradle", "docker", "cloud", "deploy", "git", "commit", "push", "pull", "merge", "branch", "logic", "random", "word", "char", "key", "press", "event", "hook", "state", "effect", "react", "style", "css", "html", "script", "node", "npm", "package", "dependency", "injection", "bean", "context", "scope", "proxy", "aspect", "logger", "debug", "trace", "metric", "monitor", "latency", "bandwidth", "storage", "cluster", "node", "packet", "header", "cookie", "payload", "secret", "crypto", "hash", "salt", "bcrypt", "jwt", "oauth", "claim", "role", "admin", "access", "permit", "deny", "cors", "csrf", "header", "params", "body", "patch", "delete", "post", "get", "put", "update", "save", "find", "list", "page", "sort", "limit", "offset", "count", "sum", "average", "rank", "level"
-    );
 
-    public String generatedText(int wordCount) {
-        Random random = new Random();
+    private final CorpusRegistry corpusRegistry;
+    private final int maxWords;
+    private final TextPool pool;
+    private final Counter poolHits;
+    private final Counter poolMisses;
 
-        return random.ints(wordCount, 0, WORDS.size())
-                .mapToObj(WORDS::get)
-                .collect(Collectors.joining(" "));
+    public TypingTextService(
+            CorpusRegistry corpusRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${typing.text.max-words:500}") int maxWords,
+            @Value("${typing.text.pool.enabled:false}") boolean poolEnabled,
+            @Value("${typing.text.pool.word-counts:15,30,50,100}") int[] poolWordCounts,
+            @Value("${typing.text.pool.capacity:256}") int poolCapacity) {
+        this.corpusRegistry = corpusRegistry;
+        this.maxWords = maxWords;
+        if (poolEnabled) {
+            this.pool = new TextPool(poolWordCounts, poolCapacity, wordCount ->
+                    generatedText(ThreadLocalRandom.current().nextLong(), wordCount, CorpusRegistry.DEFAULT_CORPUS));
+            Gauge.builder("typing.text.pool.size", pool, TextPool::size)
+                    .description("Ready-made texts waiting in the pool")
+                    .register(meterRegistry);
+            this.poolHits = Counter.builder("typing.text.pool.requests").tag("result", "hit")
+                    .register(meterRegistry);
+            this.poolMisses = Counter.builder("typing.text.pool.requests").tag("result", "miss")
+                    .register(meterRegistry);
+        } else {
+            this.pool = null;
+            this.poolHits = null;
+            this.poolMisses = null;
+        }
+    }
+
+    /**
+     * A fresh random text, served from the pool when one is ready
+     *
+     * @param corpusId corpus to draw from, or null for the default
+     */
+    public GeneratedText generatedText(int wordCount, String corpusId) {
+        checkWordCount(wordCount);
+        if (pool != null && (corpusId == null || CorpusRegistry.DEFAULT_CORPUS.equals(corpusId))) {
+            GeneratedText pooled = pool.poll(wordCount);
+            if (pooled != null) {
+                poolHits.increment();
+                return pooled;
+            }
+            poolMisses.increment();
+        }
+        return generatedText(ThreadLocalRandom.current().nextLong(), wordCount, corpusId);
+    }
+
+    /**
+     * The text for a seed; the same (seed, wordCount, corpus) always gives the same text
+     */
+    public GeneratedText generatedText(long seed, int wordCount, String corpusId) {
+        checkWordCount(wordCount);
+        Corpus corpus = corpusRegistry.get(corpusId);
+
+        // Draw the entries twice from the same seed: once to size the buffer exactly,
+        // once to copy their UTF-8 bytes straight out of the corpus
+        SplittableRandom random = new SplittableRandom(seed);
+        int entries = 0;
+        int length = -1;
+        for (int words = 0; words < wordCount; entries++) {
+            int entry = corpus.sample(random);
+            length += corpus.length(entry) + 1;
+            words += corpus.words(entry);
+        }
+
+        random = new SplittableRandom(seed);
+        byte[] text = new byte[length];
+        int position = 0;
+        for (int i = 0; i < entries; i++) {
+            int entry = corpus.sample(random);
+            if (i > 0) {
+                text[position++] = ' ';
+            }
+            corpus.copy(entry, text, position);
+            position += corpus.length(entry);
+        }
+        return new GeneratedText(seed, wordCount, corpus.id(), new String(text, StandardCharsets.UTF_8));
+    }
+
+    private void checkWordCount(int wordCount) {
+        if (wordCount < 1 || wordCount > maxWords) {
+            throw new IllegalArgumentException("words must be between 1 and " + maxWords);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.close();
+        }
     }
 }
@@ -0,0 +1,162 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.entity.User;
+import com.typingfast.app.entity.UserStats;
+import com.typingfast.app.repository.ResultAggregate;
+import com.typingfast.app.repository.TypingResultRepository;
+import com.typingfast.app.repository.UserRepository;
+import com.typingfast.app.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Maintains the user_stats aggregate and rebuilds it from typing_results.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final UserStatsRepository userStatsRepository;
+    private final TypingResultRepository typingResultRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserStatsService(
+            UserStatsRepository userStatsRepository,
+            TypingResultRepository typingResultRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager) {
+        this.userStatsRepository = userStatsRepository;
+        this.typingResultRepository = typingResultRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fold results that were just inserted into their users' aggregates.
+     * Must run in the inserting transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyAll(List<TypingResult> results) {
+        // Lock rows in user id order so concurrent batches cannot deadlock
+        Map<Long, List<TypingResult>> byUser = new TreeMap<>();
+        for (TypingResult result : results) {
+            byUser.computeIfAbsent(result.getUser().getId(), id -> new ArrayList<>()).add(result);
+        }
+
+        for (Map.Entry<Long, List<TypingResult>> entry : byUser.entrySet()) {
+            userStatsRepository.insertIfAbsent(entry.getKey(), new byte[0]);
+            UserStats stats = userStatsRepository.findByIdForUpdate(entry.getKey()).orElseThrow();
+
+            if (stats.getTotalTests() == 0) {
+                // Row was just created: first results since the aggregate was introduced,
+                // and the raw table already includes them
+                User user = entry.getValue().get(0).getUser();
+                userStatsRepository.save(computeFromResults(user));
+                continue;
+            }
+
+            entry.getValue().forEach(stats::apply);
+            userStatsRepository.save(stats);
+        }
+    }
+
+    /**
+     * Current aggregate for the user, falling back to the raw table
+     * (without writing) for users who have no aggregate row yet
+     */
+    public UserStats getStats(Long userId) {
+        return userStatsRepository.findById(userId)
+                .orElseGet(() -> computeFromResults(userRepository.getReferenceById(userId)));
+    }
+
+    /**
+     * The user's totals over results with above < duration <= upTo, read from
+     * typing_results since the aggregate row spans every duration
+     */
+    public Optional<ResultAggregate> getStats(Long userId, int above, int upTo) {
+        return typingResultRepository.aggregateByUserAndDuration(userRepository.getReferenceById(userId), above, upTo);
+    }
+
+    /**
+     * Recompute one user's aggregate from typing_results under the row lock,
+     * so a submit committing meanwhile either is counted or waits and applies
+     * its result on top, and is never overwritten
+     */
+    @Transactional
+    public UserStats rebuild(Long userId) {
+        userStatsRepository.insertIfAbsent(userId, new byte[0]);
+        userStatsRepository.findByIdForUpdate(userId).orElseThrow();
+        return userStatsRepository.save(computeFromResults(userRepository.getReferenceById(userId)));
+    }
+
+    /**
+     * Recompute every user's aggregate, replacing drifted rows and resetting
+     * users with no results. One short transaction per user, so the app can
+     * keep taking submits meanwhile and the persistence context never grows
+     * with the user count.
+     */
+    public int rebuildAll() {
+        int users = 0;
+        List<Long> ids = userRepository.findIdsAfter(0L, PageRequest.of(0, REBUILD_PAGE_SIZE));
+        while (!ids.isEmpty()) {
+            for (Long id : ids) {
+                transactionTemplate.executeWithoutResult(status -> rebuild(id));
+            }
+            users += ids.size();
+            ids = userRepository.findIdsAfter(ids.get(ids.size() - 1), PageRequest.of(0, REBUILD_PAGE_SIZE));
+        }
+        log.info("Rebuilt user_stats for {} users", users);
+        return users;
+    }
+
+    private UserStats computeFromResults(User user) {
+        return typingResultRepository.aggregateByUser(user)
+                .map(aggregate -> fromAggregate(aggregate, user))
+                .orElseGet(() -> UserStats.empty(user.getId()));
+    }
+
+    private UserStats fromAggregate(ResultAggregate aggregate, User user) {
+        UserStats stats = UserStats.builder()
+                .userId(aggregate.getUserId())
+                .totalTests((int) aggregate.getTotalTests())
+                .sumWpm(aggregate.getSumWpm())
+                .sumAccuracy(aggregate.getSumAccuracy())
+                .bestWpm(aggregate.getBestWpm())
+                .bestAccuracy(aggregate.getBestAccuracy())
+                .totalDuration((int) aggregate.getTotalDuration())
+                .totalChars((int) aggregate.getTotalChars())
+                .totalErrors((int) aggregate.getTotalErrors())
+                .build();
+
+        // Window is kept oldest first; the query returns newest first
+        List<TypingResult> recent = typingResultRepository.findTop10ByUserOrderByCreatedAtDesc(user);
+        int size = recent.size();
+        double[] recentWpm = new double[size];
+        double[] recentAccuracy = new double[size];
+        for (int i = 0; i < size; i++) {
+            TypingResult result = recent.get(size - 1 - i);
+            recentWpm[i] = result.getWpm();
+            recentAccuracy[i] = result.getAccuracy();
+        }
+        stats.setRecentWpm(recentWpm);
+        stats.setRecentAccuracy(recentAccuracy);
+        return stats;
+    }
+}
@@ -0,0 +1,145 @@
+package com.typingfast.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue drained by a single background thread that hands items to
+ * the flusher in batches, either when a batch fills up or when the oldest
+ * queued item has waited for the flush interval.
+ * When the queue is full the submitting thread flushes its own item, which
+ * slows producers down instead of dropping data. A failed batch is retried
+ * item by item; items that still fail are dropped and counted in dropped().
+ */
+class WriteBehindQueue<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final Consumer<List<T>> flusher;
+    private final Thread worker;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    WriteBehindQueue(
+            String name,
+            int capacity,
+            int batchSize,
+            long flushIntervalMillis,
+            long offerTimeoutMillis,
+            Consumer<List<T>> flusher) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.flusher = flusher;
+        this.worker = new Thread(this::drainLoop, name);
+        this.worker.start();
+    }
+
+    /**
+     * Queue an item, flushing it on the caller's thread if the queue stays full
+     *
+     * @return false if the caller had to flush the item itself
+     */
+    boolean submit(T item) {
+        if (running) {
+            try {
+                if (queue.offer(item, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flusher.accept(List.of(item));
+        return false;
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    // Items the background flush gave up on
+    long dropped() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the first item has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    T next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Never lose queued items; flush what we have and keep draining
+                Thread.interrupted();
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flusher.accept(List.copyOf(batch));
+        } catch (RuntimeException e) {
+            // Retry one by one so a single bad item cannot sink the whole batch
+            log.warn("Batch flush of {} items failed, retrying individually", batch.size(), e);
+            for (T item : batch) {
+                try {
+                    flusher.accept(List.of(item));
+                } catch (RuntimeException itemError) {
+                    dropped.incrementAndGet();
+                    log.error("Dropping item that could not be flushed", itemError);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop accepting items and flush everything still queued.
+     * The worker is not interrupted so an in-flight flush can finish its JDBC work.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
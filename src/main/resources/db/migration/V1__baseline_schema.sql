@@ -0,0 +1,29 @@
+-- =============================================================================
+-- Baseline: the schema Hibernate created with ddl-auto=update.
+-- Existing databases are baselined at version 1 and skip this script.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS users (
+    created_at datetime(6) NOT NULL,
+    id bigint NOT NULL AUTO_INCREMENT,
+    email varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    username varchar(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS typing_results (
+    accuracy float(53) NOT NULL,
+    correct_chars integer NOT NULL,
+    duration integer NOT NULL,
+    errors integer NOT NULL,
+    total_chars integer NOT NULL,
+    wpm float(53) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    id bigint NOT NULL AUTO_INCREMENT,
+    user_id bigint,
+    PRIMARY KEY (id),
+    CONSTRAINT FKhymdsdewea3suqru8w1i1wkqa FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- Per-user running aggregate maintained on every submit.
+-- IF NOT EXISTS: databases that ran with ddl-auto=update may already have it.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS user_stats (
+    best_accuracy float(53) NOT NULL,
+    best_wpm float(53) NOT NULL,
+    sum_accuracy float(53) NOT NULL,
+    sum_wpm float(53) NOT NULL,
+    total_chars integer NOT NULL,
+    total_duration integer NOT NULL,
+    total_errors integer NOT NULL,
+    total_tests integer NOT NULL,
+    user_id bigint NOT NULL,
+    recent_accuracy varbinary(80) NOT NULL,
+    recent_wpm varbinary(80) NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB;
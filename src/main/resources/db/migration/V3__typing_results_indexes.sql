@@ -0,0 +1,11 @@
+-- =============================================================================
+-- Indexes for the TypingResultRepository hot queries.
+-- =============================================================================
+
+-- History, keyset pagination, last-10 window and export:
+-- WHERE user_id = ? ORDER BY created_at DESC, id DESC is read straight off the index
+CREATE INDEX idx_typing_results_user_created ON typing_results (user_id, created_at DESC, id DESC);
+
+-- Covering index for the per-user aggregates used to rebuild user_stats
+CREATE INDEX idx_typing_results_user_totals
+    ON typing_results (user_id, wpm, accuracy, duration, total_chars, errors);
@@ -0,0 +1,10 @@
+-- =============================================================================
+-- Per-user key and bigram hit/error counts, one packed int vector per user
+-- (see UserKeyStats for the layout). Merged on every submit.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS user_key_stats (
+    user_id bigint NOT NULL,
+    counts varbinary(6592) NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB;
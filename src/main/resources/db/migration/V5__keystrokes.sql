@@ -0,0 +1,16 @@
+-- =============================================================================
+-- Millisecond test duration, and the optional keystroke stream per result:
+-- deflate-compressed varints (see KeystrokeService), kept out of typing_results
+-- so history queries never read it.
+-- =============================================================================
+
+ALTER TABLE typing_results ADD COLUMN duration_millis integer;
+
+CREATE TABLE IF NOT EXISTS typing_keystrokes (
+    result_id bigint NOT NULL,
+    event_count integer NOT NULL,
+    raw_length integer NOT NULL,
+    data mediumblob NOT NULL,
+    PRIMARY KEY (result_id),
+    CONSTRAINT fk_typing_keystrokes_result FOREIGN KEY (result_id) REFERENCES typing_results (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
@@ -0,0 +1,29 @@
+-- =============================================================================
+-- Per-user daily totals behind /api/dashboard/progress, upserted on every
+-- submit (see DailyRollupRepository). Count, sum, sum of squares and max per
+-- metric are enough to merge days into weeks or months and derive the mean
+-- and standard deviation without touching typing_results.
+-- Days are server-local, like typing_results.created_at.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS daily_user_rollup (
+    user_id bigint NOT NULL,
+    rollup_day date NOT NULL,
+    tests integer NOT NULL,
+    sum_wpm float(53) NOT NULL,
+    sum_sq_wpm float(53) NOT NULL,
+    max_wpm float(53) NOT NULL,
+    sum_accuracy float(53) NOT NULL,
+    sum_sq_accuracy float(53) NOT NULL,
+    max_accuracy float(53) NOT NULL,
+    PRIMARY KEY (user_id, rollup_day)
+) ENGINE=InnoDB;
+
+-- Backfill from the results recorded so far
+INSERT INTO daily_user_rollup
+    (user_id, rollup_day, tests, sum_wpm, sum_sq_wpm, max_wpm, sum_accuracy, sum_sq_accuracy, max_accuracy)
+SELECT user_id, CAST(created_at AS DATE), COUNT(*),
+       SUM(wpm), SUM(wpm * wpm), MAX(wpm),
+       SUM(accuracy), SUM(accuracy * accuracy), MAX(accuracy)
+FROM typing_results
+GROUP BY user_id, CAST(created_at AS DATE);
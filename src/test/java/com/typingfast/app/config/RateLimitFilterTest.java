@@ -0,0 +1,36 @@
+package com.typingfast.app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new SimpleMeterRegistry(), true, List.of("/api/typing/submit=1/1m"), 1024);
+
+    @Test
+    void limitsRoutesUnderAContextPath() throws Exception {
+        assertThat(submit().getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse refused = submit();
+        assertThat(refused.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(refused.getHeader("Retry-After")).isEqualTo("60");
+    }
+
+    private MockHttpServletResponse submit() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/typingfast/api/typing/submit");
+        request.setContextPath("/typingfast");
+        request.setServletPath("/api/typing/submit");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
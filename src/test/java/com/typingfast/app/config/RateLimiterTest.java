@@ -0,0 +1,71 @@
+package com.typingfast.app.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsABurstThenRefillsEvenly() {
+        // 5 per 5 s: one token per second
+        RateLimiter limiter = new RateLimiter(5, 5 * SECOND, 1024);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(1, 0)).isZero();
+        }
+        assertThat(limiter.tryAcquire(1, 0)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire(2, 0)).as("other keys have their own bucket").isZero();
+
+        assertThat(limiter.tryAcquire(1, SECOND)).isZero();
+        assertThat(limiter.tryAcquire(1, SECOND)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire(1, 10 * SECOND)).isZero();
+    }
+
+    @Test
+    void limitedKeyKeepsItsBucketWhenOtherSlotsGoIdle() {
+        // One stripe: every key competes for the same four slots
+        RateLimiter limiter = new RateLimiter(5, 5 * SECOND, RateLimiter.WAYS);
+        assertThat(limiter.capacity()).isEqualTo(RateLimiter.WAYS);
+        limiter.tryAcquire(100, 0);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(1, 0);
+        }
+
+        // Key 100's slot is idle again, key 1 has only refilled one token
+        long later = SECOND + SECOND / 2;
+        assertThat(limiter.tryAcquire(1, later)).isZero();
+        assertThat(limiter.tryAcquire(1, later)).isPositive();
+    }
+
+    @Test
+    void fullTableHandsTheFullestBucketToNewKeys() {
+        RateLimiter limiter = new RateLimiter(2, 2 * SECOND, RateLimiter.WAYS);
+        for (long key = 1; key <= RateLimiter.WAYS; key++) {
+            limiter.tryAcquire(key, 0);
+            limiter.tryAcquire(key, 0);
+        }
+
+        // No idle slot: the newcomer takes over a drained bucket rather than getting a fresh one
+        assertThat(limiter.tryAcquire(99, 0)).isPositive();
+    }
+
+    @Test
+    void evictedKeyComesBackToNoFullerBucketThanItLost() {
+        RateLimiter limiter = new RateLimiter(2, 2 * SECOND, RateLimiter.WAYS);
+        limiter.tryAcquire(1, 0);
+        for (long key = 2; key <= RateLimiter.WAYS; key++) {
+            limiter.tryAcquire(key, 0);
+            limiter.tryAcquire(key, 0);
+        }
+
+        // Key 1 still had a token but held the fullest bucket, so the newcomer takes its slot
+        assertThat(limiter.tryAcquire(99, 0)).isZero();
+
+        // Every slot is now drained, so key 1 returns to less than it had
+        assertThat(limiter.tryAcquire(1, 0)).isPositive();
+    }
+}
@@ -0,0 +1,115 @@
+package com.typingfast.app.config;
+
+import com.typingfast.app.service.ReadYourWritesGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded databases stand in for the primary and the replica; each
+ * answers which one it is, so the test sees where a transaction was routed.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final DataSource PRIMARY = database("routing_primary");
+    private static final DataSource REPLICA = database("routing_replica");
+    // IFEXISTS on a database that was never created: every connection attempt fails
+    private static final DataSource DOWN = new DriverManagerDataSource(
+            "jdbc:h2:mem:routing_missing;IFEXISTS=TRUE", "sa", "");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadYourWritesGuard guard = new ReadYourWritesGuard(60_000);
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @BeforeAll
+    static void createDatabases() {
+        for (String name : List.of("primary", "replica")) {
+            JdbcTemplate jdbc = new JdbcTemplate(name.equals("primary") ? PRIMARY : REPLICA);
+            jdbc.execute("CREATE TABLE whoami (name varchar(16))");
+            jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        }
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private DataSource routing(DataSource replica) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(PRIMARY, replica, guard, 60_000, meterRegistry));
+    }
+
+    private static String whoAnswers(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private static void signIn(long userId) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, "user" + userId), null, List.of()));
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(whoAnswers(routing(REPLICA), false)).isEqualTo("primary");
+        assertThat(whoAnswers(routing(REPLICA), true)).isEqualTo("replica");
+    }
+
+    @Test
+    void usersWhoJustWroteReadFromThePrimary() {
+        guard.recordWrite(1L);
+
+        signIn(1L);
+        assertThat(whoAnswers(routing(REPLICA), true)).isEqualTo("primary");
+        signIn(2L);
+        assertThat(whoAnswers(routing(REPLICA), true)).isEqualTo("replica");
+        assertThat(routed("primary", "recent_write")).isEqualTo(1);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsDown() {
+        DataSource dataSource = routing(DOWN);
+
+        assertThat(whoAnswers(dataSource, true)).isEqualTo("primary");
+        assertThat(whoAnswers(dataSource, true)).isEqualTo("primary");
+        // The first read tried the replica; the second skipped it
+        assertThat(routed("primary", "fallback")).isEqualTo(1);
+        assertThat(routed("primary", "replica_down")).isEqualTo(1);
+    }
+
+    @Test
+    void explicitCredentialsGoToThePrimary() throws Exception {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(PRIMARY, REPLICA, guard, 60_000, meterRegistry);
+
+        try (Connection connection = dataSource.getConnection("sa", "");
+             ResultSet name = connection.createStatement().executeQuery("SELECT name FROM whoami")) {
+            name.next();
+            assertThat(name.getString(1)).isEqualTo("primary");
+        }
+    }
+}
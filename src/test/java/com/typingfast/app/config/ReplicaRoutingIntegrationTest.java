@@ -0,0 +1,137 @@
+package com.typingfast.app.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typingfast.app.entity.User;
+import com.typingfast.app.repository.UserRepository;
+import com.typingfast.app.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The whole app on two embedded databases, through JPA and its transaction
+ * manager, so each database shows which requests reached it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingIntegrationTest.PRIMARY_URL,
+        "datasource.replica.url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "datasource.replica.username=sa",
+        "datasource.replica.password=",
+        // Every read-only transaction goes to the replica, even right after a write
+        "datasource.replica.read-your-writes-ms=0",
+        "typing.session.check-elapsed=false",
+        "rate-limit.enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:split_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:split_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate PRIMARY = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationContext context;
+
+    // The app migrates the primary; the replica gets the same schema, as replication would give it
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @Test
+    void requestsDoNotHoldAnEntityManager() {
+        // Open-in-view would hand a read-only transaction's replica connection to a later write
+        assertThat(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void submitIsWrittenToThePrimaryAndTheDashboardReadFromTheReplica() throws Exception {
+        User user = signUp("writer");
+        String token = jwtService.generateToken(user);
+
+        assertThat(submit(token)).isEqualTo(200);
+
+        String count = "SELECT COUNT(*) FROM typing_results WHERE user_id = ?";
+        assertThat(PRIMARY.queryForObject(count, Integer.class, user.getId())).isEqualTo(1);
+        assertThat(REPLICA.queryForObject(count, Integer.class, user.getId())).isZero();
+
+        double replicaReads = replicaReads();
+        mockMvc.perform(get("/api/dashboard/stats").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThat(replicaReads()).isGreaterThan(replicaReads);
+    }
+
+    @Test
+    void submitForADeletedUserIsUnauthorized() throws Exception {
+        User user = signUp("deleted");
+        String token = jwtService.generateToken(user);
+        PRIMARY.update("DELETE FROM users WHERE id = ?", user.getId());
+
+        assertThat(submit(token)).isEqualTo(401);
+    }
+
+    private User signUp(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("hash")
+                .build());
+    }
+
+    private double replicaReads() {
+        return meterRegistry.get("datasource.routing").tag("target", "replica").counter().count();
+    }
+
+    private int submit(String token) throws Exception {
+        String body = mockMvc.perform(get("/api/typing/text").param("words", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode text = objectMapper.readTree(body);
+
+        return mockMvc.perform(post("/api/typing/submit")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "session", text.get("session").asText(),
+                                "typedText", text.get("text").asText(),
+                                "duration", 30))))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,74 @@
+package com.typingfast.app.controller;
+
+import com.typingfast.app.config.AuthenticatedUser;
+import com.typingfast.app.dto.UserStatsResponse;
+import com.typingfast.app.service.DashboardService;
+import com.typingfast.app.service.DataVersionService;
+import com.typingfast.app.service.HistoryExportService;
+import com.typingfast.app.service.KeyStatsService;
+import com.typingfast.app.service.KeystrokeService;
+import com.typingfast.app.service.PercentileService;
+import com.typingfast.app.service.ProgressService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardControllerTest {
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final DataVersionService dataVersionService = new DataVersionService(new SimpleMeterRegistry());
+    private final DashboardController controller = new DashboardController(
+            dashboardService,
+            mock(HistoryExportService.class),
+            mock(PercentileService.class),
+            mock(KeyStatsService.class),
+            mock(KeystrokeService.class),
+            mock(ProgressService.class),
+            dataVersionService);
+    private final Authentication authentication =
+            new UsernamePasswordAuthenticationToken(new AuthenticatedUser(1L, "alice"), null, List.of());
+
+    @Test
+    void matchingTagIsAnsweredWithoutLoadingAndCommitChangesIt() {
+        when(dashboardService.getUserStats(1L)).thenReturn(UserStatsResponse.builder().build());
+
+        ResponseEntity<?> first = controller.getStats(authentication, null);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).isNotNull();
+
+        ResponseEntity<?> revalidated = controller.getStats(authentication, etag);
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(revalidated.getBody()).isNull();
+        verify(dashboardService, times(1)).getUserStats(1L);
+
+        dataVersionService.bump(1L);
+
+        ResponseEntity<?> changed = controller.getStats(authentication, etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        verify(dashboardService, times(2)).getUserStats(1L);
+    }
+
+    @Test
+    void otherUsersWritesDoNotChangeTheTag() {
+        when(dashboardService.getUserStats(1L)).thenReturn(UserStatsResponse.builder().build());
+        String etag = controller.getStats(authentication, null).getHeaders().getETag();
+
+        dataVersionService.bump(2L);
+
+        assertThat(controller.getStats(authentication, etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+}
@@ -0,0 +1,132 @@
+package com.typingfast.app.repository;
+
+import com.typingfast.app.entity.TypingResult;
+import com.typingfast.app.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL behind every TypingResultRepository query against
+ * the Flyway schema and fails if any per-user query scans the whole table.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.typingfast.app.repository.TypingResultQueryPlanTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class TypingResultQueryPlanTest {
+
+    private static final int USERS = 50;
+    private static final int RESULTS_PER_USER = 40;
+
+    @Autowired
+    private TypingResultRepository typingResultRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            User saved = userRepository.save(User.builder()
+                    .username("user" + u)
+                    .email("user" + u + "@example.com")
+                    .password("hash")
+                    .build());
+            for (int i = 0; i < RESULTS_PER_USER; i++) {
+                rows.add(new Object[]{saved.getId(), 60, 300, 290, 10, 50.0 + i, 96.0, LocalDateTime.now().minusMinutes(i)});
+            }
+            user = saved;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO typing_results " +
+                "(user_id, duration, total_chars, correct_chars, errors, wpm, accuracy, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        CapturingInspector.SQL.clear();
+    }
+
+    @Test
+    void perUserQueriesUseAnIndex() {
+        Map<String, Runnable> queries = Map.of(
+                "findByUserOrderByCreatedAtDesc(page)",
+                () -> typingResultRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(2, 10)),
+                "findByUserOrderByCreatedAtDescIdDesc",
+                () -> typingResultRepository.findByUserOrderByCreatedAtDescIdDesc(user, PageRequest.of(0, 10)),
+                "findByUserAfterCursor",
+                () -> typingResultRepository.findByUserAfterCursor(user, LocalDateTime.now(), 1L, PageRequest.of(0, 10)),
+                "aggregateByUser",
+                () -> typingResultRepository.aggregateByUser(user),
+                "aggregateByUserAndDuration",
+                () -> typingResultRepository.aggregateByUserAndDuration(user, 30, 60),
+                "findTop10ByUserOrderByCreatedAtDesc",
+                () -> typingResultRepository.findTop10ByUserOrderByCreatedAtDesc(user));
+
+        queries.forEach((name, query) -> {
+            CapturingInspector.SQL.clear();
+            query.run();
+            assertThat(CapturingInspector.SQL).as(name).isNotEmpty();
+
+            for (String sql : CapturingInspector.SQL) {
+                String plan = explain(sql);
+                assertThat(plan)
+                        .as("%s must not scan typing_results:%n%s", name, plan)
+                        .doesNotContainIgnoringCase("typing_results.tableScan");
+            }
+        });
+    }
+
+    @Test
+    void aggregateReadsTheCoveringIndex() {
+        // Touches every row of the user, but should never need the table itself
+        typingResultRepository.aggregateByUser(user);
+
+        String plan = explain(CapturingInspector.SQL.get(CapturingInspector.SQL.size() - 1));
+        assertThat(plan).containsIgnoringCase("idx_typing_results_user_totals");
+    }
+
+    private String explain(String sql) {
+        // Parameters are left unbound so H2 cannot constant-fold them away
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase().contains("typing_results")) {
+                SQL.add(sql);
+            }
+            return sql;
+        }
+    }
+}
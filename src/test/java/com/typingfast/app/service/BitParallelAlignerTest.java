@@ -0,0 +1,104 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BitParallelAlignerTest {
+
+    @Test
+    void missedCharacterIsOneDeletion() {
+        Alignment alignment = BitParallelAligner.align("the quick brown fox", "te quick brown fox");
+
+        assertThat(alignment).isEqualTo(new Alignment(18, 0, 0, 1));
+    }
+
+    @Test
+    void separatesSubstitutionsInsertionsAndDeletions() {
+        Alignment alignment = BitParallelAligner.align("spring boot maven", "sprinng bot mavan");
+
+        assertThat(alignment).isEqualTo(new Alignment(15, 1, 1, 1));
+    }
+
+    @Test
+    void untypedTailIsNotAnError() {
+        Alignment alignment = BitParallelAligner.align("java spring boot", "java spr");
+
+        assertThat(alignment).isEqualTo(new Alignment(8, 0, 0, 0));
+    }
+
+    @Test
+    void comparesCodePoints() {
+        // U+1D400 is a surrogate pair in UTF-16
+        Alignment alignment = BitParallelAligner.align("привет 𝐀 мир", "привет 𝐀 мор");
+
+        assertThat(alignment).isEqualTo(new Alignment(11, 1, 0, 0));
+    }
+
+    @Test
+    void matchesDynamicProgrammingAcrossBlocksAndBands() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int run = 0; run < 3_000; run++) {
+            String original = randomText(random, random.nextInt(0, 600));
+            // Every fifth run types something unrelated, forcing the band to widen
+            String typed = run % 5 == 0
+                    ? randomText(random, random.nextInt(0, 600))
+                    : mutate(random, original.substring(0, random.nextInt(0, original.length() + 1)));
+
+            Alignment alignment = BitParallelAligner.align(original, typed);
+
+            assertThat(alignment.errors()).as("%s / %s", original, typed).isEqualTo(reference(original, typed));
+            assertThat(alignment.matches() + alignment.substitutions() + alignment.insertions())
+                    .isEqualTo(typed.length());
+        }
+    }
+
+    // Textbook O(n * m) Levenshtein, ending anywhere in the original
+    private static int reference(String original, String typed) {
+        int m = original.length();
+        int n = typed.length();
+        int[][] d = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                int cost = original.charAt(i - 1) == typed.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i <= m; i++) {
+            best = Math.min(best, d[i][n]);
+        }
+        return best;
+    }
+
+    private static String randomText(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append("abcde ".charAt(random.nextInt(6)));
+        }
+        return text.toString();
+    }
+
+    private static String mutate(SplittableRandom random, String text) {
+        StringBuilder typed = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            int roll = random.nextInt(20);
+            if (roll == 0) {
+                continue;
+            }
+            typed.append(roll == 1 ? 'x' : text.charAt(i));
+            if (roll == 2) {
+                typed.append('y');
+            }
+        }
+        return typed.toString();
+    }
+}
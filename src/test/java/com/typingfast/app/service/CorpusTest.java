@@ -0,0 +1,63 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CorpusTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void samplesInProportionToWeight() {
+        Map<String, Long> weights = new LinkedHashMap<>();
+        weights.put("the", 60L);
+        weights.put("of", 30L);
+        weights.put("zebra", 9L);
+        weights.put("quux", 1L);
+        Corpus corpus = Corpus.wrap("weighted", CorpusPacker.pack(weights));
+
+        int draws = 1_000_000;
+        int[] counts = new int[corpus.size()];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < draws; i++) {
+            counts[corpus.sample(random)]++;
+        }
+
+        assertThat(counts[0] / (double) draws).isCloseTo(0.60, within(0.005));
+        assertThat(counts[1] / (double) draws).isCloseTo(0.30, within(0.005));
+        assertThat(counts[2] / (double) draws).isCloseTo(0.09, within(0.005));
+        assertThat(counts[3] / (double) draws).isCloseTo(0.01, within(0.002));
+    }
+
+    @Test
+    void readsEntriesFromMappedFile() throws Exception {
+        Map<String, Long> weights = new LinkedHashMap<>();
+        weights.put("naïve café", 1L);
+        weights.put("to be or not to be", 1L);
+        ByteBuffer packed = CorpusPacker.pack(weights);
+        byte[] bytes = new byte[packed.remaining()];
+        packed.get(bytes);
+        Path file = Files.write(dir.resolve("quotes.tfc"), bytes);
+
+        Corpus corpus = Corpus.open("quotes", file);
+
+        assertThat(corpus.size()).isEqualTo(2);
+        assertThat(corpus.words(0)).isEqualTo(2);
+        assertThat(corpus.words(1)).isEqualTo(6);
+        byte[] entry = new byte[corpus.length(0)];
+        corpus.copy(0, entry, 0);
+        assertThat(new String(entry, StandardCharsets.UTF_8)).isEqualTo("naïve café");
+    }
+}
@@ -0,0 +1,29 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DurationBracketsTest {
+
+    private final DurationBrackets brackets = new DurationBrackets(new int[]{60, 15, 120, 30});
+
+    @Test
+    void resultsLandInTheBracketTheirRequestParameterNames() {
+        // Recording files a duration under the smallest bound at or above it
+        assertThat(brackets.indexOf(1)).isEqualTo(0);
+        assertThat(brackets.indexOf(15)).isEqualTo(0);
+        assertThat(brackets.indexOf(16)).isEqualTo(1);
+        assertThat(brackets.indexOf(40)).isEqualTo(2);
+        assertThat(brackets.indexOf(121)).isEqualTo(-1);
+
+        // Queries name a bracket only by that bound, and its range matches what indexOf files there
+        int sixty = brackets.indexOfBound(60);
+        assertThat(sixty).isEqualTo(brackets.indexOf(40));
+        assertThat(brackets.lowerBound(sixty)).isEqualTo(30);
+        assertThat(brackets.indexOf(brackets.lowerBound(sixty))).isEqualTo(sixty - 1);
+        assertThat(brackets.lowerBound(0)).isEqualTo(Integer.MIN_VALUE);
+        assertThatThrownBy(() -> brackets.indexOfBound(40)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
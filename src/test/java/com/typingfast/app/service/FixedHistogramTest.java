@@ -0,0 +1,25 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedHistogramTest {
+
+    @Test
+    void refusesNonFiniteValues() {
+        FixedHistogram histogram = new FixedHistogram(300, 10);
+        histogram.record(40.0);
+        histogram.record(80.0);
+
+        assertThatThrownBy(() -> histogram.record(Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.record(Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(histogram.totalCount()).isEqualTo(2);
+        assertThat(histogram.percentileOf(300.0)).isEqualTo(100.0);
+        assertThat(histogram.percentileOf(60.0)).isEqualTo(50.0);
+    }
+}
@@ -0,0 +1,39 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryCursorTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_000), 42);
+
+        assertThat(HistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsTamperedCursorsAsInvalidArguments() {
+        assertThatThrownBy(() -> HistoryCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HistoryCursor.decode("AAAA")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HistoryCursor.decode(encode(0, -1, 1))).isInstanceOf(IllegalArgumentException.class);
+        // Out of LocalDateTime's range: DateTimeException must not escape as a 500
+        assertThatThrownBy(() -> HistoryCursor.decode(encode(Long.MAX_VALUE, 0, 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid history cursor");
+    }
+
+    private static String encode(long epochSecond, int nanos, long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + Long.BYTES)
+                .putLong(epochSecond)
+                .putInt(nanos)
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
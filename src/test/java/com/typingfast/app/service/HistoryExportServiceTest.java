@@ -0,0 +1,140 @@
+package com.typingfast.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryExportServiceTest {
+
+    private static final int ROWS = 1_000;
+    // The memory check only runs with -Pslow-tests
+    private static final int LARGE_ROWS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    // Materializing the same history as entities and DTOs takes several hundred MB
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @TempDir
+    static Path dbDir;
+
+    private static JdbcTemplate jdbcTemplate;
+    private static HistoryExportService exportService;
+
+    @BeforeAll
+    static void seed() {
+        // File-backed H2 with a small page cache so the table itself does not live on the heap
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:file:" + dbDir.resolve("export") + ";MODE=MySQL;CACHE_SIZE=4096", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE typing_results (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, duration INT, duration_millis INT, total_chars INT, " +
+                "correct_chars INT, errors INT, wpm DOUBLE, accuracy DOUBLE, created_at TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE INDEX idx_user_created ON typing_results (user_id, created_at, id)");
+
+        seedHistory(1L, ROWS);
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new HistoryExportService(jdbcTemplate, objectMapper, 500);
+    }
+
+    private static void seedHistory(long userId, int rows) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{userId, 60, 300, 290, 10, 58.0 + i % 40, 96.67, Timestamp.valueOf(start.plusSeconds(i))});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO typing_results " +
+                "(user_id, duration, total_chars, correct_chars, errors, wpm, accuracy, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void ndjsonExportWritesOneLinePerResult() throws Exception {
+        HeapSamplingStream out = new HeapSamplingStream();
+
+        exportService.writeNdjson(1L, out);
+
+        assertThat(out.lines).isEqualTo(ROWS);
+    }
+
+    @Test
+    @Tag("slow")
+    void ndjsonExportStreamsAMillionRowsInBoundedMemory() throws Exception {
+        seedHistory(3L, LARGE_ROWS);
+        long baseline = usedHeapAfterGc();
+        HeapSamplingStream out = new HeapSamplingStream();
+
+        exportService.writeNdjson(3L, out);
+
+        assertThat(out.lines).isEqualTo(LARGE_ROWS);
+        assertThat(out.maxUsedHeap - baseline)
+                .as("heap growth while streaming %d rows", LARGE_ROWS)
+                .isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    void jsonArrayExportIsNewestFirst() throws Exception {
+        jdbcTemplate.update("INSERT INTO typing_results " +
+                "(user_id, duration, total_chars, correct_chars, errors, wpm, accuracy, created_at) " +
+                "VALUES (2, 30, 50, 45, 5, 90.123, 90.0, '2024-01-01 00:00:00'), " +
+                "(2, 30, 50, 50, 0, 100.0, 100.0, '2024-01-02 00:00:00')");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeJsonArray(2L, out);
+
+        String json = out.toString();
+        assertThat(json).startsWith("[{").endsWith("}]");
+        assertThat(json.indexOf("2024-01-02T00:00:00")).isLessThan(json.indexOf("2024-01-01T00:00:00"));
+        assertThat(json).contains("\"wpm\":90.12");
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Discards output, counting lines and sampling live heap as the export progresses
+    private static final class HeapSamplingStream extends OutputStream {
+        private long lines;
+        private long maxUsedHeap;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                maxUsedHeap = Math.max(maxUsedHeap, usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hmac-sha-256-signing";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final User user = User.builder().Id(42L).username("alice").build();
+
+    @Test
+    void cachedTokenIsNotParsedAgain() {
+        JwtService jwtService = new JwtService(SECRET, 60_000L, 100, meterRegistry);
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getSubject()).isEqualTo("alice");
+        assertThat(JwtService.userId(second)).isEqualTo(42L);
+        // jwt.verify only times cache misses
+        assertThat(meterRegistry.get("jwt.verify").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedTokenIsNotServedOnceExpired() throws InterruptedException {
+        // exp has whole-second precision, so this token expires within one to two seconds
+        JwtService jwtService = new JwtService(SECRET, 2_000L, 100, meterRegistry);
+        String token = jwtService.generateToken(user);
+        assertThat(jwtService.verify(token).getSubject()).isEqualTo("alice");
+
+        Thread.sleep(2_100);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtService.validateToken(token)).isFalse();
+    }
+}
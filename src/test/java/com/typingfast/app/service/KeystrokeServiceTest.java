@@ -0,0 +1,80 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.KeystrokeStatsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeystrokeServiceTest {
+
+    private final KeystrokeService service = new KeystrokeService(null, 100, 1000);
+
+    @Test
+    void analysesStreamInOnePass() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        String text = "the then";
+        for (int i = 0; i < text.length(); i++) {
+            int delta = i == 0 ? 0 : i == 4 ? 1500 : 100 + i * 10;
+            boolean correct = i != 2;
+            writeVarint(stream, delta);
+            writeVarint(stream, (long) text.charAt(i) << 1 | (correct ? 1 : 0));
+        }
+        byte[] raw = service.decode(Base64.getEncoder().encodeToString(stream.toByteArray()));
+
+        KeystrokeStatsResponse stats = service.analyze(raw);
+
+        assertThat(stats.getKeystrokes()).isEqualTo(8);
+        assertThat(stats.getIncorrectKeystrokes()).isEqualTo(1);
+        assertThat(stats.getHesitations()).isEqualTo(1);
+        assertThat(stats.getLongestPauseMillis()).isEqualTo(1500);
+        assertThat(stats.getLongestPauseAt()).isEqualTo(4);
+        assertThat(stats.getMedianLatencyMillis()).isEqualTo(150);
+        // "th" is the only bigram typed correctly twice
+        assertThat(stats.getSlowestBigrams()).singleElement()
+                .satisfies(bigram -> assertThat(bigram.getBigram()).isEqualTo("th"));
+    }
+
+    @Test
+    void compressionRoundTrips() {
+        byte[] raw = new byte[5000];
+        for (int i = 0; i < raw.length; i += 2) {
+            raw[i] = (byte) (i % 120);
+            raw[i + 1] = (byte) ('a' << 1 | 1);
+        }
+        byte[] compressed = service.compress(raw);
+
+        assertThat(compressed.length).isLessThan(raw.length);
+        assertThat(service.inflate(compressed, raw.length)).isEqualTo(raw);
+
+        // Truncated blobs fail instead of waiting forever for more input
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThatThrownBy(() -> service.inflate(truncated, raw.length))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.inflate(compressed, raw.length + 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsMalformedStreams() {
+        assertThatThrownBy(() -> service.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Continuation bit set on the last byte
+        assertThatThrownBy(() -> service.decode(Base64.getEncoder().encodeToString(new byte[] {0, (byte) 0x80})))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.decode(Base64.getEncoder().encodeToString(new byte[202])))
+                .hasMessageContaining("more than 100 events");
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,98 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeaderboardTest {
+
+    @Test
+    void keepsPersonalBestsAndRanksThemLikeTop() {
+        Leaderboard board = new Leaderboard();
+        assertThat(board.offer(1, "ann", 80.0)).isTrue();
+        assertThat(board.offer(2, "bob", 95.5)).isTrue();
+        assertThat(board.offer(3, "cy", 60.0)).isTrue();
+
+        // Only a better result replaces the entry
+        assertThat(board.offer(3, "cy", 50.0)).isFalse();
+        assertThat(board.offer(3, "cy", 99.0)).isTrue();
+
+        assertThat(board.size()).isEqualTo(3);
+        assertThat(board.top(10)).extracting(Leaderboard.Entry::userId).containsExactly(3L, 2L, 1L);
+        assertThat(board.top(2)).extracting(Leaderboard.Entry::userId).containsExactly(3L, 2L);
+        assertThat(board.rankOf(99.0)).isEqualTo(1);
+        assertThat(board.rankOf(95.5)).isEqualTo(2);
+        assertThat(board.rankOf(80.0)).isEqualTo(3);
+        // A score nobody has is ranked where it would land
+        assertThat(board.rankOf(10.0)).isEqualTo(4);
+        assertThat(board.rankOf(Leaderboard.MAX_WPM + 100)).isEqualTo(1);
+    }
+
+    @Test
+    void scoresInOneBucketShareARankAndListByUserId() {
+        Leaderboard board = new Leaderboard();
+        board.offer(7, "late", 100.004);
+        board.offer(4, "early", 100.001);
+        board.offer(9, "slow", 90.0);
+
+        assertThat(board.top(3)).extracting(Leaderboard.Entry::userId).containsExactly(4L, 7L, 9L);
+        assertThat(board.rankOf(100.001)).isEqualTo(1);
+        assertThat(board.rankOf(100.004)).isEqualTo(1);
+        assertThat(board.rankOf(90.0)).isEqualTo(3);
+    }
+
+    @Test
+    void ranksStayPositiveWhileOthersImprove() throws Exception {
+        Leaderboard board = new Leaderboard();
+        for (long user = 1; user <= 100; user++) {
+            board.offer(user, "u" + user, user);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    long user = 1 + random.nextInt(100);
+                    board.offer(user, "u" + user, board.entry(user).bestWpm() + random.nextDouble());
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 200_000; i++) {
+                    // Users moving during a read may be miscounted, but a rank is never below 1
+                    assertThat(board.rankOf(0.0)).isPositive();
+                    assertThat(board.rankOf(random.nextDouble(Leaderboard.MAX_WPM))).isPositive();
+                }
+            });
+            reader.get(30, TimeUnit.SECONDS);
+            running.set(false);
+            writer.get(30, TimeUnit.SECONDS);
+            assertThat(board.rankOf(0.0)).isEqualTo(101);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void refusesNonFiniteWpm() {
+        Leaderboard board = new Leaderboard();
+        board.offer(1, "ann", 80.0);
+
+        assertThatThrownBy(() -> board.offer(2, "bob", Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> board.offer(1, "ann", Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(board.top(10)).extracting(Leaderboard.Entry::userId).containsExactly(1L);
+        assertThat(board.rankOf(80.0)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,104 @@
+package com.typingfast.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+
+    private final PasswordHashingService service = new PasswordHashingService(
+            new BCryptPasswordEncoder(5), new SimpleMeterRegistry(), 5, 1, 4);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void verifiesWithoutRehashAtCurrentFactor() {
+        String hash = service.hash("secret123");
+
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(service.verify("secret123", hash)).isEqualTo(new PasswordCheck(true, null));
+        assertThat(service.verify("wrong", hash).matches()).isFalse();
+    }
+
+    @Test
+    void rehashesWhenFactorChanged() {
+        String older = new BCryptPasswordEncoder(4).encode("secret123");
+
+        PasswordCheck check = service.verify("secret123", older);
+
+        assertThat(check.matches()).isTrue();
+        assertThat(check.rehashed()).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder(5).matches("secret123", check.rehashed())).isTrue();
+        // A wrong password never triggers a rehash
+        assertThat(service.verify("wrong", older)).isEqualTo(new PasswordCheck(false, null));
+    }
+
+    @Test
+    void refusesWorkAtOnceWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("slow".contentEquals(rawPassword)) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals(encode(rawPassword));
+            }
+        };
+        MeterRegistry registry = new SimpleMeterRegistry();
+        // One BCrypt thread and room for one waiting hash
+        PasswordHashingService small = new PasswordHashingService(slowEncoder, registry, 5, 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> running = callers.submit(() -> small.hash("slow"));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<String> queued = callers.submit(() -> small.hash("queued"));
+            while (registry.get("auth.bcrypt.queue.size").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> small.hash("third")).isInstanceOf(RejectedExecutionException.class);
+            assertThat(registry.get("auth.bcrypt.rejected").counter().count()).isEqualTo(1.0);
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("hash:slow");
+            assertThat(queued.get(10, TimeUnit.SECONDS)).isEqualTo("hash:queued");
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void unknownUserDoesNotMatch() {
+        assertThat(service.verify("secret123", null).matches()).isFalse();
+    }
+}
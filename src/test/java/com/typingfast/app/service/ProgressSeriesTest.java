@@ -0,0 +1,80 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.ProgressPointResponse;
+import com.typingfast.app.repository.DailyRollup;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ProgressSeriesTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    private static DailyRollup day(LocalDate date, double... wpms) {
+        DailyRollup rollup = null;
+        for (double wpm : wpms) {
+            DailyRollup one = DailyRollup.of(1L, date, wpm, 90 + wpm / 10);
+            rollup = rollup == null ? one : rollup.plus(one);
+        }
+        return rollup;
+    }
+
+    @Test
+    void mergesDaysIntoWeeksWithMeanSpreadAndBest() {
+        ProgressSeries series = new ProgressSeries(ProgressBucket.WEEK, 2);
+        series.add(day(MONDAY, 40, 60));
+        series.add(day(MONDAY.plusDays(6), 50));
+        series.add(day(MONDAY.plusDays(7), 80));
+
+        List<ProgressPointResponse> points = series.finish();
+
+        assertThat(points).extracting(ProgressPointResponse::getStart)
+                .containsExactly(MONDAY, MONDAY.plusDays(7));
+        ProgressPointResponse first = points.get(0);
+        assertThat(first.getTests()).isEqualTo(3);
+        assertThat(first.getAverageWpm()).isEqualTo(50.0);
+        assertThat(first.getBestWpm()).isEqualTo(60.0);
+        assertThat(first.getWpmStdDev()).isCloseTo(Math.sqrt(200.0 / 3), within(0.01));
+        // Test-weighted over both weeks: (150 + 80) / 4
+        assertThat(points.get(1).getMovingAverageWpm()).isEqualTo(57.5);
+        assertThat(series.totalTests()).isEqualTo(4);
+    }
+
+    @Test
+    void movingAverageDropsBucketsOutsideTheWindow() {
+        ProgressSeries series = new ProgressSeries(ProgressBucket.DAY, 2);
+        series.add(day(MONDAY, 10));
+        series.add(day(MONDAY.plusDays(1), 20));
+        series.add(day(MONDAY.plusDays(2), 60));
+
+        assertThat(series.finish()).extracting(ProgressPointResponse::getMovingAverageWpm)
+                .containsExactly(10.0, 15.0, 40.0);
+    }
+
+    @Test
+    void slopeIsPerDayAcrossGaps() {
+        ProgressSeries series = new ProgressSeries(ProgressBucket.DAY, 7);
+        // +2 WPM per day, with missing days in between
+        series.add(day(MONDAY, 40));
+        series.add(day(MONDAY.plusDays(3), 46));
+        series.add(day(MONDAY.plusDays(10), 60));
+        series.finish();
+
+        assertThat(series.wpmSlopePerDay()).isEqualTo(2.0);
+        assertThat(series.accuracySlopePerDay()).isEqualTo(0.2);
+    }
+
+    @Test
+    void slopeNeedsTwoBuckets() {
+        ProgressSeries series = new ProgressSeries(ProgressBucket.MONTH, 3);
+        series.add(day(MONDAY, 40));
+        series.add(day(MONDAY.plusDays(20), 50));
+
+        assertThat(series.finish()).hasSize(1);
+        assertThat(series.wpmSlopePerDay()).isNull();
+    }
+}
@@ -0,0 +1,68 @@
+package com.typingfast.app.service;
+
+import com.typingfast.app.dto.ScoringMode;
+import com.typingfast.app.dto.TypingSubmitRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TypingAnalysisServiceTest {
+
+    private final TypingAnalysisService analysisService = new TypingAnalysisService();
+
+    @Test
+    void alignmentRefusesTypedTextFarLongerThanTheOriginal() {
+        String original = "java spring boot";
+        String allowed = "x".repeat(original.length() * TypingAnalysisService.MAX_TYPED_RATIO
+                + TypingAnalysisService.MAX_TYPED_SLACK);
+
+        assertThat(analysisService.score(original, allowed, ScoringMode.ALIGNMENT).alignment()).isNotNull();
+        assertThatThrownBy(() -> analysisService.score(original, allowed + "x", ScoringMode.ALIGNMENT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analysisService.score(original, "x".repeat(5_000_000), ScoringMode.ALIGNMENT))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void submitRequestCapsTypedLength() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        TypingSubmitRequest request = new TypingSubmitRequest();
+        request.setSession("session");
+        request.setDuration(30);
+
+        request.setTypedText("x".repeat(20_000));
+        assertThat(validator.validate(request)).isEmpty();
+        request.setTypedText("x".repeat(20_001));
+        assertThat(validator.validate(request)).extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("typedText");
+    }
+
+    @Test
+    void submitRequestBoundsDuration() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        TypingSubmitRequest request = new TypingSubmitRequest();
+        request.setSession("session");
+        request.setTypedText("text");
+
+        for (int duration : new int[]{0, -1, 3601}) {
+            request.setDuration(duration);
+            assertThat(validator.validate(request)).extracting(violation -> violation.getPropertyPath().toString())
+                    .containsExactly("duration");
+        }
+        request.setDuration(3600);
+        assertThat(validator.validate(request)).isEmpty();
+    }
+
+    @Test
+    void onlyHumanWpmIsPlausible() {
+        assertThat(analysisService.isPlausibleWpm(0)).isTrue();
+        assertThat(analysisService.isPlausibleWpm(TypingAnalysisService.MAX_WPM)).isTrue();
+        assertThat(analysisService.isPlausibleWpm(analysisService.calculateWpm(320, 1))).isFalse();
+        assertThat(analysisService.isPlausibleWpm(analysisService.calculateWpm(320, 0))).isFalse();
+        assertThat(analysisService.isPlausibleWpm(analysisService.calculateWpm(0, 0))).isFalse();
+        assertThat(analysisService.isPlausibleWpm(-1)).isFalse();
+    }
+}
@@ -0,0 +1,63 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TypingSessionServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret";
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final TypingSessionService sessions = new TypingSessionService(
+            SECRET, Duration.ofHours(1), true, Duration.ofMinutes(5));
+
+    @Test
+    void opensWhatItIssued() {
+        String defaultId = sessions.issue(new GeneratedText(-42, 50, CorpusRegistry.DEFAULT_CORPUS, "text"), NOW);
+        assertThat(sessions.open(defaultId, NOW + 1000))
+                .isEqualTo(new TypingSession(-42, 50, CorpusRegistry.DEFAULT_CORPUS, NOW));
+        assertThat(defaultId).hasSizeLessThan(60);
+
+        String englishId = sessions.issue(new GeneratedText(7, 30, "english", "text"), NOW);
+        assertThat(sessions.open(englishId, NOW)).isEqualTo(new TypingSession(7, 30, "english", NOW));
+    }
+
+    @Test
+    void rejectsTamperedForeignAndExpiredIds() {
+        String id = sessions.issue(new GeneratedText(1, 50, CorpusRegistry.DEFAULT_CORPUS, "text"), NOW);
+
+        byte[] bytes = Base64.getUrlDecoder().decode(id);
+        bytes[1] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        assertThatThrownBy(() -> sessions.open(tampered, NOW)).isInstanceOf(IllegalArgumentException.class);
+
+        TypingSessionService other = new TypingSessionService(
+                SECRET + "!", Duration.ofHours(1), true, Duration.ofMinutes(5));
+        assertThatThrownBy(() -> other.open(id, NOW)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> sessions.open(id, NOW + Duration.ofHours(2).toMillis()))
+                .hasMessageContaining("expired");
+        assertThatThrownBy(() -> sessions.open("not a session", NOW)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesDurationsLongerThanTheSession() {
+        TypingSession session = new TypingSession(1, 50, CorpusRegistry.DEFAULT_CORPUS, NOW);
+        sessions.checkDuration(session, 30_000, NOW + 31_000);
+        assertThatThrownBy(() -> sessions.checkDuration(session, 30_000, NOW + 5_000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesDurationsFarShorterThanTheSession() {
+        TypingSession session = new TypingSession(1, 50, CorpusRegistry.DEFAULT_CORPUS, NOW);
+        sessions.checkDuration(session, 30_000, NOW + Duration.ofMinutes(5).toMillis() + 30_000);
+        assertThatThrownBy(() -> sessions.checkDuration(session, 1_000, NOW + Duration.ofMinutes(6).toMillis()))
+                .hasMessageContaining("idle");
+    }
+}
@@ -0,0 +1,72 @@
+package com.typingfast.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindQueueTest {
+
+    private static final String WORKER = "test-write-behind";
+
+    private final List<List<String>> flushes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void failedBatchIsRetriedItemByItemAndBadItemsAreCounted() {
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>(WORKER, 10, 3, 1_000, 50, batch -> {
+            flushes.add(batch);
+            if (batch.contains("bad")) {
+                throw new IllegalStateException("constraint violated");
+            }
+        });
+
+        assertThat(queue.submit("a")).isTrue();
+        assertThat(queue.submit("bad")).isTrue();
+        assertThat(queue.submit("b")).isTrue();
+        queue.close();
+
+        assertThat(flushes).containsExactly(
+                List.of("a", "bad", "b"), List.of("a"), List.of("bad"), List.of("b"));
+        assertThat(queue.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueFlushesOnTheCallersThread() throws InterruptedException {
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> flushedBy = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>(WORKER, 1, 1, 1_000, 10, batch -> {
+            flushes.add(batch);
+            flushedBy.add(Thread.currentThread().getName());
+            if (Thread.currentThread().getName().equals(WORKER)) {
+                workerBusy.countDown();
+                awaitQuietly(release);
+            }
+        });
+
+        assertThat(queue.submit("a")).isTrue();
+        assertThat(workerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        // The worker is stuck flushing "a": "b" fills the queue, "c" finds it full
+        assertThat(queue.submit("b")).isTrue();
+        assertThat(queue.submit("c")).isFalse();
+        assertThat(flushes).containsExactly(List.of("a"), List.of("c"));
+        assertThat(flushedBy.get(1)).isEqualTo(Thread.currentThread().getName());
+
+        release.countDown();
+        queue.close();
+        assertThat(flushes).containsExactly(List.of("a"), List.of("c"), List.of("b"));
+        assertThat(queue.dropped()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}